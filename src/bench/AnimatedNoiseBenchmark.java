@@ -0,0 +1,103 @@
+package bench;
+
+import java.awt.Rectangle;
+
+import engine.gfx.Camera;
+import engine.gfx.World;
+import engine.model.GameConstants;
+import engine.model.TileMap;
+import engine.util.AnimatedNoiseLayer;
+import engine.util.OpenSimplexNoise;
+
+/**
+ * Times one game tick of the animated water layer over the game's camera window, next to a
+ * reference loop that evaluates 4D noise for every visible tile on every tick.
+ *
+ * Run with: java -cp out bench.AnimatedNoiseBenchmark [ticks between scrolls]   (default 0, never)
+ *
+ * A tick is what GameEngine2 does: setWindow with World.visibleTiles, advance, and then every
+ * tile's value for the frame, which World.render reads for the water tiles. With a scroll interval the camera moves one tile to the right
+ * every that many ticks, like a player walking. Times are per tick, averaged over whole
+ * animation loops so the keyframe swaps are counted, best of ROUNDS.
+ */
+public class AnimatedNoiseBenchmark {
+
+	private static final int WARMUP_ROUNDS = 2;
+	private static final int ROUNDS = 5;
+
+	private static final long SEED = 1;
+
+	public static void main(String[] args) {
+
+		int scrollEvery = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+
+		int size = GameConstants.WORLD_SIZE;
+		TileMap map = new TileMap(size, size, GameConstants.tileWidth, GameConstants.tileHeight);
+		Camera camera = new Camera(0, 0, 1500, 1500);
+
+		int ticks = AnimatedNoiseLayer.DEFAULT_TICKS_PER_STEP * AnimatedNoiseLayer.DEFAULT_STEPS_PER_LOOP;
+
+		// the view sits in the middle of the map, so walking right never reaches its edge
+		int startX = -(size / 2) * GameConstants.tileWidth;
+		int startY = -(size / 2) * GameConstants.tileHeight;
+
+		Rectangle window = World.visibleTiles(camera, map, startX, startY);
+		float[] values = new float[window.width * window.height];
+
+		double layerMs = best(() -> {
+			AnimatedNoiseLayer layer = new AnimatedNoiseLayer(SEED);
+			int xscroll = startX;
+			for (int tick = 0; tick < ticks; tick++) {
+				if (scrollEvery > 0 && tick % scrollEvery == 0) {
+					xscroll -= GameConstants.tileWidth;
+				}
+				Rectangle visible = World.visibleTiles(camera, map, xscroll, startY);
+				layer.setWindow(visible.x, visible.y, visible.width, visible.height);
+				layer.advance();
+				layer.getValues(values);
+			}
+		}) / 1e6 / ticks;
+
+		OpenSimplexNoise noise = OpenSimplexNoise.forSeed(SEED);
+		double radius = AnimatedNoiseLayer.DEFAULT_LOOP_LENGTH / (2 * Math.PI);
+
+		double fullMs = best(() -> {
+			int xscroll = startX;
+			for (int tick = 0; tick < ticks; tick++) {
+				if (scrollEvery > 0 && tick % scrollEvery == 0) {
+					xscroll -= GameConstants.tileWidth;
+				}
+				Rectangle visible = World.visibleTiles(camera, map, xscroll, startY);
+				double angle = 2 * Math.PI * tick / ticks;
+				double z = radius * Math.cos(angle);
+				double w = radius * Math.sin(angle);
+				int cell = 0;
+				for (int row = visible.y; row < visible.y + visible.height; row++) {
+					double y = row / AnimatedNoiseLayer.DEFAULT_FEATURE_SIZE;
+					for (int col = visible.x; col < visible.x + visible.width; col++) {
+						values[cell++] = (float) noise.eval(col / AnimatedNoiseLayer.DEFAULT_FEATURE_SIZE, y, z, w);
+					}
+				}
+			}
+		}) / 1e6 / ticks;
+
+		System.out.printf("window %dx%d, %d ticks per loop, scroll every %s%n", window.width, window.height, ticks,
+				scrollEvery > 0 ? scrollEvery + " ticks" : "never");
+		System.out.printf("%-24s %10.3f ms/tick%n", "AnimatedNoiseLayer", layerMs);
+		System.out.printf("%-24s %10.3f ms/tick%n", "4D eval per tile", fullMs);
+	}
+
+	// best of ROUNDS in nanoseconds, the others are mostly disturbed by gc and other processes
+	private static long best(Runnable loop) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			loop.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			loop.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+}
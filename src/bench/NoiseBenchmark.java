@@ -0,0 +1,448 @@
+package bench;
+
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.function.DoubleSupplier;
+
+import engine.gfx.World;
+import engine.model.GameConstants;
+import engine.model.TileMap;
+import engine.util.NoiseAtlas;
+import engine.util.OpenSimplexNoise;
+import regions.BaseGrassRegion;
+import spongepowered.noise.module.Module;
+import spongepowered.noise.module.combiner.Add;
+import spongepowered.noise.module.combiner.Blend;
+import spongepowered.noise.module.combiner.Displace;
+import spongepowered.noise.module.combiner.Max;
+import spongepowered.noise.module.combiner.Min;
+import spongepowered.noise.module.combiner.Multiply;
+import spongepowered.noise.module.combiner.Power;
+import spongepowered.noise.module.combiner.Select;
+import spongepowered.noise.module.modifier.Abs;
+import spongepowered.noise.module.modifier.Clamp;
+import spongepowered.noise.module.modifier.Curve;
+import spongepowered.noise.module.modifier.Exponent;
+import spongepowered.noise.module.modifier.Invert;
+import spongepowered.noise.module.modifier.Range;
+import spongepowered.noise.module.modifier.RotatePoint;
+import spongepowered.noise.module.modifier.ScaleBias;
+import spongepowered.noise.module.modifier.ScalePoint;
+import spongepowered.noise.module.modifier.Terrace;
+import spongepowered.noise.module.modifier.TranslatePoint;
+import spongepowered.noise.module.modifier.Turbulence;
+import spongepowered.noise.module.source.Billow;
+import spongepowered.noise.module.source.Checkerboard;
+import spongepowered.noise.module.source.Const;
+import spongepowered.noise.module.source.Cylinders;
+import spongepowered.noise.module.source.Perlin;
+import spongepowered.noise.module.source.RidgedMulti;
+import spongepowered.noise.module.source.Spheres;
+import spongepowered.noise.module.source.Voronoi;
+
+/**
+ * Benchmarks every noise module, OpenSimplexNoise and the world generators.
+ *
+ * Every benchmark reports the median and best time per sample and the bytes allocated per
+ * sample by the benchmark thread. The whole suite runs several times over, one benchmark after
+ * the other, and each benchmark keeps its lowest median: a disturbance only ever makes a run
+ * slower, and running the suite again spreads the disturbances over different benchmarks.
+ *
+ * Results can be saved to a baseline file and later runs compared against it, anything that
+ * got slower by more than REGRESSION_FACTOR is marked as a regression. A baseline only
+ * compares with runs of the same --size, it is refused otherwise.
+ *
+ * Run with: java -cp out bench.NoiseBenchmark [options]
+ *
+ *   --size n          side of the sampled grid for the noise benchmarks (default 64)
+ *   --repeat n        times the suite is run, each benchmark keeps its lowest median (default 10)
+ *   --filter text     only run benchmarks whose name contains text
+ *   --baseline file   compare against a saved baseline (src/bench/noise-baseline.properties)
+ *   --save file       save the results as a baseline
+ *
+ * Modifiers read from a single octave Perlin and combiners from single octave Perlins, so
+ * their numbers include that source. Compare them with source.Perlin1 to get the cost of
+ * the modifier itself. Timings are only comparable between runs on the same machine.
+ */
+public class NoiseBenchmark {
+
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int ROUNDS = 20;
+
+	// slower than the baseline by more than this factor counts as a regression. Set above the
+	// spread between whole runs with the default --repeat: up to 1.54x on a single cpu, mostly
+	// from the JIT compiling differently from one vm to the next, which repeating can not average out.
+	private static final double REGRESSION_FACTOR = 1.60;
+
+	// baseline key holding the --size it was recorded at
+	private static final String SIZE_KEY = "size";
+
+	public static void main(String[] args) throws IOException {
+
+		int size = 64;
+		int repeat = 10;
+		String filter = "";
+		String baselineFile = null;
+		String saveFile = null;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--size") && i + 1 < args.length) {
+				size = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("--repeat") && i + 1 < args.length) {
+				repeat = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("--filter") && i + 1 < args.length) {
+				filter = args[++i];
+			} else if (args[i].equals("--baseline") && i + 1 < args.length) {
+				baselineFile = args[++i];
+			} else if (args[i].equals("--save") && i + 1 < args.length) {
+				saveFile = args[++i];
+			} else {
+				throw new IllegalArgumentException("Unknown argument: " + args[i]);
+			}
+		}
+
+		Properties baseline = null;
+		if (baselineFile != null) {
+			baseline = new Properties();
+			try (InputStream in = new FileInputStream(baselineFile)) {
+				baseline.load(in);
+			}
+			// the samples per benchmark change with the size and so does the time per sample
+			String baselineSize = baseline.getProperty(SIZE_KEY);
+			if (baselineSize == null) {
+				System.out.println("warning: " + baselineFile + " does not say which --size it was recorded at");
+			} else if (Integer.parseInt(baselineSize) != size) {
+				throw new IllegalArgumentException(baselineFile + " was recorded at --size " + baselineSize + ", this run uses --size " + size);
+			}
+		}
+		if (repeat < 1) {
+			throw new IllegalArgumentException("--repeat must be at least 1");
+		}
+
+		Properties results = new Properties();
+		results.setProperty(SIZE_KEY, String.valueOf(size));
+		int regressions = 0;
+
+		List<Case> cases = new ArrayList<Case>();
+		for (Case c : cases(size)) {
+			if (c.name.contains(filter)) {
+				cases.add(c);
+			}
+		}
+
+		Result[] best = new Result[cases.size()];
+		for (int r = 0; r < repeat; r++) {
+			for (int i = 0; i < cases.size(); i++) {
+				Result result = measure(cases.get(i));
+				if (best[i] == null) {
+					best[i] = result;
+				} else {
+					best[i].nsPerSample = Math.min(best[i].nsPerSample, result.nsPerSample);
+					best[i].bestNsPerSample = Math.min(best[i].bestNsPerSample, result.bestNsPerSample);
+					best[i].bytesPerSample = Math.min(best[i].bytesPerSample, result.bytesPerSample);
+				}
+			}
+		}
+
+		System.out.printf("%-34s %12s %12s %12s%n", "benchmark", "ns/sample", "best", "bytes/sample");
+
+		for (int i = 0; i < cases.size(); i++) {
+
+			Case c = cases.get(i);
+			Result result = best[i];
+
+			results.setProperty(c.name + ".ns", String.format("%.2f", result.nsPerSample));
+			results.setProperty(c.name + ".bytes", String.format("%.2f", result.bytesPerSample));
+
+			String note = "";
+			if (baseline != null && baseline.getProperty(c.name + ".ns") != null) {
+				double before = Double.parseDouble(baseline.getProperty(c.name + ".ns"));
+				double change = result.nsPerSample / before;
+				note = String.format("  %+.1f%%", (change - 1) * 100);
+				if (change > REGRESSION_FACTOR) {
+					note += "  REGRESSION";
+					regressions++;
+				}
+			}
+
+			System.out.printf("%-34s %12.2f %12.2f %12.2f%s%n", c.name, result.nsPerSample, result.bestNsPerSample, result.bytesPerSample, note);
+		}
+
+		if (baseline != null) {
+			System.out.println(regressions + " regression(s) against " + baselineFile);
+		}
+
+		if (saveFile != null) {
+			save(results, saveFile, "NoiseBenchmark baseline, --size " + size + " --repeat " + repeat + ", " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+					+ ", " + Runtime.getRuntime().availableProcessors() + " cpu(s)");
+		}
+	}
+
+	// writes the results sorted by name, so baselines can be diffed
+	private static void save(Properties results, String file, String comment) throws IOException {
+		try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+			out.println("# " + comment);
+			for (String key : new TreeSet<String>(results.stringPropertyNames())) {
+				out.println(key + "=" + results.getProperty(key));
+			}
+		}
+	}
+
+	private static List<Case> cases(int size) {
+
+		List<Case> cases = new ArrayList<Case>();
+
+		Perlin perlin1 = new Perlin();
+		perlin1.setOctaveCount(1);
+
+		// sources
+
+		Voronoi voronoi = new Voronoi();
+		voronoi.setEnableDistance(true);
+
+		addModule(cases, "source.Perlin", new Perlin(), size);
+		addModule(cases, "source.Perlin1", perlin1, size);
+		addModule(cases, "source.Billow", new Billow(), size);
+		addModule(cases, "source.RidgedMulti", new RidgedMulti(), size);
+		addModule(cases, "source.Voronoi", voronoi, size);
+		addModule(cases, "source.Cylinders", new Cylinders(), size);
+		addModule(cases, "source.Spheres", new Spheres(), size);
+		addModule(cases, "source.Checkerboard", new Checkerboard(), size);
+		addModule(cases, "source.Const", new Const(), size);
+
+		// modifiers
+
+		Clamp clamp = new Clamp();
+		clamp.setLowerBound(-0.5);
+		clamp.setUpperBound(0.5);
+
+		Curve curve = new Curve();
+		curve.addControlPoint(-2.0, -1.6);
+		curve.addControlPoint(-1.0, -0.5);
+		curve.addControlPoint(0.0, 0.2);
+		curve.addControlPoint(0.5, 0.6);
+		curve.addControlPoint(1.0, 1.2);
+		curve.addControlPoint(2.0, 1.4);
+
+		Range range = new Range();
+		range.setBounds(-1, 1, 0, 10);
+
+		RotatePoint rotate = new RotatePoint();
+		rotate.setAngles(30, 45, 60);
+
+		Terrace terrace = new Terrace();
+		terrace.makeControlPoints(8);
+
+		addModule(cases, "modifier.Abs", withSources(new Abs(), perlin1), size);
+		addModule(cases, "modifier.Clamp", withSources(clamp, perlin1), size);
+		addModule(cases, "modifier.Curve", withSources(curve, perlin1), size);
+		addModule(cases, "modifier.Exponent", withSources(new Exponent(), perlin1), size);
+		addModule(cases, "modifier.Invert", withSources(new Invert(), perlin1), size);
+		addModule(cases, "modifier.Range", withSources(range, perlin1), size);
+		addModule(cases, "modifier.RotatePoint", withSources(rotate, perlin1), size);
+		addModule(cases, "modifier.ScaleBias", withSources(new ScaleBias(), perlin1), size);
+		addModule(cases, "modifier.ScalePoint", withSources(new ScalePoint(), perlin1), size);
+		addModule(cases, "modifier.Terrace", withSources(terrace, perlin1), size);
+		addModule(cases, "modifier.TranslatePoint", withSources(new TranslatePoint(), perlin1), size);
+		addModule(cases, "modifier.Turbulence", withSources(new Turbulence(), perlin1), size);
+
+		// combiners
+
+		Perlin other = new Perlin();
+		other.setOctaveCount(1);
+		other.setSeed(1);
+
+		Perlin control = new Perlin();
+		control.setOctaveCount(1);
+		control.setSeed(2);
+
+		Select select = new Select();
+		select.setBounds(1000, 0.5);
+		select.setEdgeFalloff(0.125);
+
+		addModule(cases, "combiner.Add", withSources(new Add(), perlin1, other), size);
+		addModule(cases, "combiner.Blend", withSources(new Blend(), perlin1, other, control), size);
+		addModule(cases, "combiner.Displace", withSources(new Displace(), perlin1, other, control, other), size);
+		addModule(cases, "combiner.Max", withSources(new Max(), perlin1, other), size);
+		addModule(cases, "combiner.Min", withSources(new Min(), perlin1, other), size);
+		addModule(cases, "combiner.Multiply", withSources(new Multiply(), perlin1, other), size);
+		addModule(cases, "combiner.Power", withSources(new Power(), perlin1, other), size);
+		addModule(cases, "combiner.Select", withSources(select, perlin1, other, control), size);
+
+		// OpenSimplexNoise
+
+		final OpenSimplexNoise simplex = new OpenSimplexNoise(1234L);
+		final int n = size;
+
+		cases.add(new Case("simplex.eval2D", n * n, () -> {
+			double sum = 0;
+			for (int j = 0; j < n; j++) {
+				for (int i = 0; i < n; i++) {
+					sum += simplex.eval(x(i), y(j));
+				}
+			}
+			return sum;
+		}));
+		cases.add(new Case("simplex.eval3D", n * n, () -> {
+			double sum = 0;
+			for (int j = 0; j < n; j++) {
+				for (int i = 0; i < n; i++) {
+					sum += simplex.eval(x(i), y(j), 0.5);
+				}
+			}
+			return sum;
+		}));
+		cases.add(new Case("simplex.eval4D", n * n, () -> {
+			double sum = 0;
+			for (int j = 0; j < n; j++) {
+				for (int i = 0; i < n; i++) {
+					sum += simplex.eval(x(i), y(j), 0.5, 0.25);
+				}
+			}
+			return sum;
+		}));
+
+		// world generators, at the size the game uses
+
+		final int worldSize = GameConstants.WORLD_SIZE;
+		// baked once at world load, not part of building the map
+		final NoiseAtlas atlas = new NoiseAtlas(1);
+
+		cases.add(new Case("world.buildOverWorld", worldSize * worldSize, () -> {
+			TileMap map = quietly(() -> new World().buildOverWorld(worldSize, GameConstants.tileWidth, GameConstants.tileHeight, 0, 0, atlas));
+			return map.getWidth() * map.getHeight();
+		}));
+		cases.add(new Case("world.BaseGrassRegion.generate", worldSize * worldSize, () -> {
+			TileMap map = quietly(() -> BaseGrassRegion.generate(worldSize, GameConstants.tileWidth, GameConstants.tileHeight, 0, 0, "GRASS"));
+			return map.getWidth() * map.getHeight();
+		}));
+
+		return cases;
+	}
+
+	// adds a getValue and a getValues benchmark of the module over a size x size grid
+	private static void addModule(List<Case> cases, String name, final Module module, final int size) {
+
+		cases.add(new Case(name + ".getValue", size * size, () -> {
+			double sum = 0;
+			for (int j = 0; j < size; j++) {
+				for (int i = 0; i < size; i++) {
+					sum += module.getValue(x(i), y(j), 0.5);
+				}
+			}
+			return sum;
+		}));
+
+		final double[] out = new double[size * size];
+
+		cases.add(new Case(name + ".getValues", size * size, () -> {
+			module.getValues(out, x(0), y(0), 0.5, x(1) - x(0), y(1) - y(0), size, size);
+			return out[0] + out[out.length - 1];
+		}));
+	}
+
+	private static Module withSources(Module module, Module... sources) {
+		for (int i = 0; i < sources.length; i++) {
+			module.setSourceModule(i, sources[i]);
+		}
+		return module;
+	}
+
+	private static double x(int i) {
+		return 0.3 + i * 0.0137;
+	}
+
+	private static double y(int j) {
+		return 0.7 + j * 0.0173;
+	}
+
+	private interface Generator<T> {
+		T generate();
+	}
+
+	// the generators log to System.out, keep that out of the report
+	private static <T> T quietly(Generator<T> generator) {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			return generator.generate();
+		} finally {
+			System.setOut(out);
+		}
+	}
+
+	private static Result measure(Case c) {
+
+		double sink = 0;
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink += c.op.getAsDouble();
+		}
+
+		long[] times = new long[ROUNDS];
+		long allocatedBefore = allocatedBytes();
+
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			sink += c.op.getAsDouble();
+			times[i] = System.nanoTime() - start;
+		}
+
+		long allocated = allocatedBytes() - allocatedBefore;
+
+		// keep the results alive so the work can not be optimised away
+		if (sink == 42.4242) {
+			System.out.println();
+		}
+
+		Arrays.sort(times);
+
+		Result result = new Result();
+		result.nsPerSample = (double) times[ROUNDS / 2] / c.samples;
+		result.bestNsPerSample = (double) times[0] / c.samples;
+		result.bytesPerSample = allocated < 0 ? Double.NaN : (double) allocated / ROUNDS / c.samples;
+		return result;
+	}
+
+	/*
+	 * Bytes allocated by the current thread so far, or -1 when the vm can not tell. Work
+	 * handed to other threads, like the fork/join chunks of buildOverWorld, is not counted.
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	private static class Case {
+
+		final String name;
+		final int samples;
+		final DoubleSupplier op;
+
+		Case(String name, int samples, DoubleSupplier op) {
+			this.name = name;
+			this.samples = samples;
+			this.op = op;
+		}
+	}
+
+	private static class Result {
+		double nsPerSample;
+		double bestNsPerSample;
+		double bytesPerSample;
+	}
+}
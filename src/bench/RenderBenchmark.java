@@ -0,0 +1,167 @@
+package bench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import engine.gfx.Camera;
+import engine.gfx.World;
+import engine.model.GameConstants;
+import engine.model.Item;
+import engine.model.Player;
+import engine.model.Sprite;
+import engine.model.TileMap;
+import engine.model.TileType;
+
+/**
+ * Times one frame of World.render at several world sizes, next to a reference loop that
+ * visits every tile and tests it against the camera the way the renderer used to.
+ *
+ * Run with: java -cp out bench.RenderBenchmark [world sizes...]   (default 200 1000 4000)
+ *
+ * The camera and screen are the game's, the view is in the middle of the map. Every tile
+ * kind gets its own flat colour sprite so nothing has to be loaded, and each size first
+ * checks that both loops draw the same picture.
+ */
+public class RenderBenchmark {
+
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int ROUNDS = 50;
+
+	public static void main(String[] args) {
+
+		int[] sizes = {200, 1000, 4000};
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		loadFlatSprites();
+
+		int width = GameConstants.WIDTH * GameConstants.SCALE;
+		int height = GameConstants.HEIGHT * GameConstants.SCALE;
+		BufferedImage window = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		BufferedImage full = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		System.out.printf("%-8s %14s %14s %10s%n", "world", "window ms", "full scan ms", "tiles");
+
+		for (int size : sizes) {
+
+			TileMap map = randomMap(size);
+			Scene scene = new Scene(map);
+
+			scene.renderWindow(window);
+			scene.renderFullScan(full);
+			if (!samePixels(window, full)) {
+				throw new IllegalStateException("World.render and the full scan drew different frames at " + size);
+			}
+
+			double windowMs = best(() -> scene.renderWindow(window)) / 1e6;
+			double fullMs = best(() -> scene.renderFullScan(full)) / 1e6;
+
+			System.out.printf("%-8d %14.3f %14.3f %10d%n", size, windowMs, fullMs, (long) size * size);
+		}
+	}
+
+	// one sprite per sprite sheet index used by a tile kind, each a different colour
+	private static void loadFlatSprites() {
+		Map<Integer, Sprite> sheet = new HashMap<Integer, Sprite>();
+		for (int id = 0; id < TileType.count(); id++) {
+			int index = TileType.get(id).getSpriteIndex();
+			if (!sheet.containsKey(index)) {
+				BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+				Graphics2D g = image.createGraphics();
+				g.setColor(Color.getHSBColor(index / 256f, 0.8f, 0.9f));
+				g.fillRect(0, 0, 16, 16);
+				g.dispose();
+				sheet.put(index, new Sprite(image));
+			}
+		}
+		TileType.loadSprites(sheet);
+	}
+
+	private static TileMap randomMap(int size) {
+		TileMap map = new TileMap(size, size, GameConstants.tileWidth, GameConstants.tileHeight);
+		Random random = new Random(size);
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				map.setType(col, row, (short) random.nextInt(TileType.count()));
+			}
+		}
+		return map;
+	}
+
+	private static boolean samePixels(BufferedImage a, BufferedImage b) {
+		int[] pa = a.getRGB(0, 0, a.getWidth(), a.getHeight(), null, 0, a.getWidth());
+		int[] pb = b.getRGB(0, 0, b.getWidth(), b.getHeight(), null, 0, b.getWidth());
+		return Arrays.equals(pa, pb);
+	}
+
+	// best of ROUNDS in nanoseconds, the others are mostly disturbed by gc and other processes
+	private static long best(Runnable frame) {
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			frame.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			frame.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	// the game's camera and player, scrolled so the view sits in the middle of the map
+	private static final class Scene {
+
+		final TileMap map;
+		final World world = new World();
+		final Camera camera = new Camera(0, 0, 1500, 1500);
+		final Player player;
+		final int pXC = GameConstants.tileWidth * 23;
+		final int pYC = GameConstants.tileHeight * 19;
+		final int xscroll, yscroll;
+
+		Scene(TileMap map) {
+			this.map = map;
+			this.player = new Player(pXC, pYC, new ArrayList<Item>(), false);
+			this.xscroll = -(map.getWidth() / 2) * map.getTileWidth();
+			this.yscroll = -(map.getHeight() / 2) * map.getTileHeight();
+		}
+
+		void renderWindow(BufferedImage target) {
+			Graphics2D g = target.createGraphics();
+			g.fillRect(0, 0, target.getWidth(), target.getHeight());
+			World.render(g, camera, player, pXC, pYC, world, map, 0, 0, xscroll, yscroll, null);
+			g.dispose();
+		}
+
+		// every tile, tested one by one against the camera
+		void renderFullScan(BufferedImage target) {
+			Graphics2D g = target.createGraphics();
+			g.fillRect(0, 0, target.getWidth(), target.getHeight());
+			int cammX = camera.getX() - xscroll;
+			int cammY = camera.getY() - yscroll;
+			int cammXW = camera.getXb() - xscroll;
+			int cammYH = camera.getYb() - yscroll;
+			for (int row = 0; row < map.getHeight(); row++) {
+				int tileY = map.getY(row);
+				for (int col = 0; col < map.getWidth(); col++) {
+					int tileX = map.getX(col);
+					if (tileX >= (cammX - 60) && tileX <= cammXW && tileY >= (cammY - 60) && tileY <= cammYH) {
+						g.drawImage(TileType.sprite(map.getType(col, row)), tileX + xscroll, tileY + yscroll, GameConstants.tileWidth, GameConstants.tileHeight, null);
+					}
+				}
+			}
+			g.drawImage(player.getCurrentImage(), pXC, pYC, GameConstants.playerWidth, GameConstants.playerHeight, null);
+			g.dispose();
+		}
+	}
+}
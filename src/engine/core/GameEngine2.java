@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import javax.swing.JFrame;
 
@@ -28,8 +29,11 @@ import engine.model.Item;
 import engine.model.Player;
 import engine.model.Sprite;
 import engine.model.SpriteSheet;
-import engine.model.Tile;
+import engine.model.TileMap;
+import engine.model.TileType;
+import engine.util.AnimatedNoiseLayer;
 import engine.util.DebugUtil;
+import engine.util.NoiseAtlas;
 import regions.BaseGrassRegion;
 import regions.Region;
 
@@ -46,12 +50,6 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 	private int xx = 0;
 	private int yy = 0;
 	
-	/* The camera coordinates (forms a rectangle) */
-	public int cammX = 0;
-	public int cammY = 0;
-	public int cammXW = 0;
-	public int cammYH = 0;
-	
 	//not used yet but will be used for pausing
 	public static boolean updateWorld = false;
 	
@@ -62,8 +60,8 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 	//uhhh....another pause boolean...something
 	public boolean PAUSED = false;
 	
-	/* Arraylist for the randomly generated world */
-	private ArrayList<Tile> overWorld;
+	/* the randomly generated world, chunked tile storage */
+	private TileMap overWorld;
 
 	/* regions will need multiple "world" so we need a list for that */
 	//private ArrayList<World> worlds;
@@ -128,6 +126,15 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 	public static Map<String, Sprite> spriteMap = new HashMap<String, Sprite>();
 	public static Map<Integer, Sprite> spriteMap2 = new HashMap<Integer, Sprite>();
 	
+	/* seamless noise textures for tile decoration and animated effects, baked at world load */
+	public static NoiseAtlas noiseAtlas;
+	
+	/* animated water over the tiles on screen, moved on every tick and drawn by World.render as shimmer */
+	public static AnimatedNoiseLayer waterLayer;
+	
+	// one seed per run, the atlas and every region derive theirs from it
+	public static long worldSeed;
+	
 	/* our player */
 	public Player player;
 	
@@ -204,6 +211,10 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 
 		loadImages();
 		
+		worldSeed = new Random().nextLong();
+		noiseAtlas = new NoiseAtlas(worldSeed);
+		waterLayer = new AnimatedNoiseLayer(worldSeed);
+		
 		
 		//not used yet
 		invManager = new InventoryManager();
@@ -241,7 +252,7 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 			
 			camera = new Camera(0, 0, 1500, 1500);
 	
-			overWorld = world.buildOverWorld(GameConstants.WORLD_SIZE, GameConstants.tileWidth, GameConstants.tileHeight, pXC, pYC);
+			overWorld = world.buildOverWorld(GameConstants.WORLD_SIZE, GameConstants.tileWidth, GameConstants.tileHeight, pXC, pYC, noiseAtlas);
 			//world = screen.buildSimplexRegion(GameConstants.WORLD_SIZE, GameConstants.tileWidth, GameConstants.tileHeight, pXC, pYC, "GRASS");
 			
 			BaseGrassRegion grassRegion = new BaseGrassRegion();
@@ -250,7 +261,8 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 			grassRegion.setRegionY(pYC);
 			
 			
-			ArrayList<Tile> regionTiles = BaseGrassRegion.generate(GameConstants.WORLD_SIZE, GameConstants.tileWidth, GameConstants.tileHeight, pXC, pYC, "GRASS");
+			TileMap regionTiles = BaseGrassRegion.generate(GameConstants.WORLD_SIZE, GameConstants.tileWidth, GameConstants.tileHeight, pXC, pYC, "GRASS",
+					Region.regionSeed(worldSeed, grassRegion.getRegionX(), grassRegion.getRegionY()));
 			
 			grassRegion.setRegion(regionTiles);
 						
@@ -492,6 +504,11 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 	
 			
 		}
+		
+		// after moving, so the water is on the tiles this frame draws
+		if (!PAUSED) {
+			animateWater();
+		}
 	
 	}
 	
@@ -500,55 +517,66 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 		PAUSED = true;	
 	}
 	
+	/**
+	 * Keeps the water layer on the same tiles World.render draws and moves it on one tick,
+	 * so only the tiles that scrolled into view and this tick's share of the next keyframe are evaluated
+	 */
+	private void animateWater() {
+		
+		TileMap activeWorld = World.overWorldActive ? overWorld : World.getRegionByCoordinates(pXC, pYC, world);
+		
+		if (activeWorld == null) {
+			return;
+		}
+		
+		Rectangle visible = World.visibleTiles(camera, activeWorld, xscroll, yscroll);
+		waterLayer.setWindow(visible.x, visible.y, visible.width, visible.height);
+		waterLayer.advance();
+	}
+	
 	
 	
 	/**
 	 * checkCollide
 	 * using the player coordinates on the screen, check collision based on movement (if the tile adjacent is a blocker)
+	 * only the tiles under the probe rectangle are checked, so the cost does not depend on the world size
 	 * @param action - which action was taken
 	 * @return - boolean 
 	 */
 	public boolean checkCollide(String action) {
-		boolean move = true;
-		for (int coll = 0; coll < overWorld.size(); coll++) {	
-				Rectangle collTest = new Rectangle();
-				
-				if (action == "LEFT") {
-					collTest.setBounds(pXC - GameConstants.COLLISION_BUFFER, pYC, GameConstants.playerWidth, GameConstants.playerHeight);
-					move = updateMoveActive(collTest, coll, move);
-				} else if(action == "RIGHT") {
-					collTest.setBounds(pXC  + GameConstants.COLLISION_BUFFER, pYC, GameConstants.playerWidth, GameConstants.playerHeight);
-					move = updateMoveActive(collTest, coll, move);	
-				} else if(action == "UP") {
-					collTest.setBounds(pXC, pYC - GameConstants.COLLISION_BUFFER, GameConstants.playerWidth, GameConstants.playerHeight);
-					move = updateMoveActive(collTest, coll, move);
-				} else if(action == "DOWN") {
-					collTest.setBounds(pXC, pYC + GameConstants.COLLISION_BUFFER, GameConstants.playerWidth, GameConstants.playerHeight);
-					move = updateMoveActive(collTest, coll, move);	
-				}
-				
-				
-			
+		
+		int probeX = pXC;
+		int probeY = pYC;
+		
+		if (action == "LEFT") {
+			probeX -= GameConstants.COLLISION_BUFFER;
+		} else if(action == "RIGHT") {
+			probeX += GameConstants.COLLISION_BUFFER;
+		} else if(action == "UP") {
+			probeY -= GameConstants.COLLISION_BUFFER;
+		} else if(action == "DOWN") {
+			probeY += GameConstants.COLLISION_BUFFER;
+		} else {
+			return true;
 		}
 		
-		return move;
+		// collide with whatever is being drawn, the overworld or the region the player is in
+		TileMap activeWorld = World.overWorldActive ? overWorld : World.getRegionByCoordinates(pXC, pYC, world);
 		
-	}
-	
-	public boolean updateMoveActive(Rectangle collTest, int coll, boolean move) {
+		if (activeWorld == null) {
+			return true;
+		}
 		
-
-		if (collTest.intersects(overWorld.get(coll).me) && overWorld.get(coll).isBlockMovement()) {
-			if (DEBUG_ENABLED) {
-				System.out.println("move blocked");
-				System.out.println("colltest x= " + collTest.x);
-				System.out.println("colltest y= " + collTest.y);
-				System.out.println("colltest x2= " + (collTest.x + collTest.width));
-				System.out.println("colltest y2= " + (collTest.y + collTest.height));
-			}
-			move = false;
-		} 
-
+		// the probe is in screen space, the map is in world pixels
+		boolean move = !activeWorld.isAreaBlocked(probeX - xscroll, probeY - yscroll, GameConstants.playerWidth, GameConstants.playerHeight);
+		
+		if (!move && DEBUG_ENABLED) {
+			System.out.println("move blocked");
+			System.out.println("colltest x= " + probeX);
+			System.out.println("colltest y= " + probeY);
+			System.out.println("colltest x2= " + (probeX + GameConstants.playerWidth));
+			System.out.println("colltest y2= " + (probeY + GameConstants.playerHeight));
+		}
 		
 		return move;
 		
@@ -570,7 +598,7 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 		
 		g.fillRect(0, 0, getWidth(), getHeight());
 
-		World.render(g, camera, player, pXC, pYC, world, overWorld, xx, yy, xscroll, yscroll, cammX, cammY, cammXW, cammYH);
+		World.render(g, camera, player, pXC, pYC, world, overWorld, xx, yy, xscroll, yscroll, waterLayer);
 		
 		
 		if (inventoryPressed) {
@@ -589,13 +617,13 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 	
 	private void gatherItem(int column) {
 		
+		int col = overWorld.getCol(column);
+		int row = overWorld.getRow(column);
+		
 		Item item = new Item();
-		item.setName(overWorld.get(column).getType());
+		item.setName(overWorld.getTileType(col, row).getName());
 		player.inventory.add(item);
-		overWorld.get(column).setCanGather(false);
-		overWorld.get(column).setBlockMovement(false);
-		overWorld.get(column).setType("GRASS");
-		overWorld.get(column).setCurrentImage(grass);
+		overWorld.setTileType(col, row, TileType.GATHERED);
 	}
 	
 
@@ -653,6 +681,8 @@ public class GameEngine2 extends Canvas implements Runnable {//, ActionListener
 			brush = spriteMap2.get(216).getImage();			
 			
 			weeds = spriteMap2.get(175).getImage();
+			
+			TileType.loadSprites(spriteMap2);
 			wiz_front = spriteMap2.get(90).getImage();
 			wiz_back = spriteMap2.get(90).getImage();
 			wiz_right = spriteMap2.get(90).getImage();
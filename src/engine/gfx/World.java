@@ -2,19 +2,26 @@ package engine.gfx;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.math3.util.Precision;
 
-import engine.core.GameEngine2;
 import engine.model.GameConstants;
 import engine.model.Player;
-import engine.model.Tile;
+import engine.model.TileMap;
+import engine.model.TileType;
+import engine.util.AnimatedNoiseLayer;
+import engine.util.NoiseAtlas;
 import engine.util.OpenSimplexNoise;
 import regions.Region;
-import spongepowered.noise.module.Module;
 import spongepowered.noise.module.source.Voronoi;
 
 
@@ -106,178 +113,150 @@ public class World implements Serializable {
 	}
 
 	
-	public ArrayList<Tile> buildOverWorld(int size, int tileWidth, int tileheight, int playerStartX, int playerStartY) {
+	// atlas picks the grass and tree variants, see decorate
+	public TileMap buildOverWorld(int size, int tileWidth, int tileheight, int playerStartX, int playerStartY, NoiseAtlas atlas) {
 
 		double xPeriod =10, yPeriod = 10;
 
-		int tilex = 0;
-		int tiley = 0;
-		int tileCount = 0;
-		//boolean startSet = false;
-		
-		ArrayList<Tile> tiles = new ArrayList<Tile>();
-
 		double rand = Math.random();
 		
 		int seed = (int) (rand * 1000);
+
+		// one module for the whole world, getValue2D keeps no state so the chunks can share it
+		Voronoi module = new Voronoi();
+		module.setEnableDistance(true); 
+		module.setDisplacement(2);
+		module.setFrequency(1);
+		module.setSeed(seed);
+
+		// generate the chunks in parallel, each task fills one chunk of the map
+		TileMap map = new TileMap(size, size, tileWidth, tileheight);
+		
+		ArrayList<OverWorldChunk> chunks = new ArrayList<OverWorldChunk>();
+		
+		for (int chunkY = 0; chunkY < map.getChunksY(); chunkY++) {
+			for (int chunkX = 0; chunkX < map.getChunksX(); chunkX++) {
+				chunks.add(new OverWorldChunk(module, atlas, map, chunkX, chunkY, xPeriod, yPeriod));
+			}
+		}
 		
-		for (int col= 0; col < size; col++) {	
+		ForkJoinTask.invokeAll(chunks);
+
+		// look for the start in the same order as the sequential loop so it is the same tile.
+		// The start goes by the noise band, not the tile type, which decorate has mixed up.
+		for (int row = 0; row < size && !playerInitSet; row++) {
+			for (int col = 0; col < size; col++) {
+				
+				if (isStartBand(map.getNoise(col, row)) && isInStartRegion(map.getX(col), map.getY(row))) {
+					map.setFlag(col, row, TileMap.FLAG_START, true);
+					System.out.println("FOUND A START!");
+					setWorldStartX(map.getX(col));
+					setWorldStartY(map.getY(row));
+					playerInitSet = true;
+					break;
+				}
+			}
+		}
+
+		return map;
+	}
 
-			tilex = 0;
-			tileCount++;
+	// the band that was GRASS4 before decoration. The stored noise is the rounded value as a
+	// float, rounding it again gives back the exact value the band was picked from.
+	private static boolean isStartBand(float noise) {
+		return overWorldType(Precision.round((double) noise, 2)) == TileType.GRASS4;
+	}
+
+	private static boolean isInStartRegion(int tilex, int tiley) {
+		return (tilex >= GameConstants.WORLD_START_REGION && (tilex <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5))) && (tiley >= GameConstants.WORLD_START_REGION && (tiley <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5)));
+	}
 
-			for (int row = 0; row < size; row++) {
-				Module module = new Voronoi();
+	private static TileType overWorldType(double test) {
+
+		if (test <= .1 ) {
+			return TileType.WATER1;
+		} else if ((test > .1 && test <= .6)) {
+			return TileType.WATER2;
+		} else if ((test > .6 && test <= .62)) {
+			return TileType.GRASS1;
+		} else if ((test > .62 && test <= .65)) {
+			return TileType.GRASS2;
+		} else if ((test > .65 && test <= .67)) {
+			return TileType.GRASS3;
+		} else if ((test > .67 && test <= .7)) {
+			return TileType.GRASS4;
+		} else if ((test > .7 && test <= .8)) {
+			return TileType.TREE;
+		} else if ((test > .8 && test <= .9)) {
+			return TileType.TREE2;
+		} else if ((test > .9 && test <= 1)) {
+			return TileType.TREE_MOUNTAIN;
+		} else if ((test > 1 && test <= 1.2)) {
+			return TileType.MOUNTAIN_HILLS;
+		} else if (test > 1.2) {
+			return TileType.MOUNTAIN;
+		} else {
+			return TileType.ELSE;
+		}
+	}
 
-				{
+	// tiles of the same kind that only differ in their image, decorate picks one
+	private static final TileType[] GRASS_VARIANTS = {TileType.GRASS2, TileType.GRASS3, TileType.GRASS4};
+	private static final TileType[] TREE_VARIANTS = {TileType.TREE2, TileType.TREE3, TileType.TREE4};
 
-					((Voronoi) module).setEnableDistance(true); 
-					((Voronoi) module).setDisplacement(2);
-					((Voronoi) module).setFrequency(1);
-					((Voronoi) module).setSeed(seed);
+	// The noise bands decide what a tile is, the atlas decides which grass or tree image it gets,
+	// so the variants come in patches instead of thin rings around each height.
+	private static TileType decorate(TileType type, NoiseAtlas atlas, int col, int row) {
+		if (type == TileType.GRASS2 || type == TileType.GRASS3 || type == TileType.GRASS4) {
+			return GRASS_VARIANTS[atlas.variant(NoiseAtlas.LAYER_DECORATION, col, row, GRASS_VARIANTS.length)];
+		}
+		if (type == TileType.TREE2) {
+			return TREE_VARIANTS[atlas.variant(NoiseAtlas.LAYER_DECORATION, col, row, TREE_VARIANTS.length)];
+		}
+		return type;
+	}
+
+	// One chunk of the overworld map.
+	private static final class OverWorldChunk extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Voronoi module;
+		private final NoiseAtlas atlas;
+		private final TileMap map;
+		private final int chunkX, chunkY;
+		private final double xPeriod, yPeriod;
+
+		OverWorldChunk(Voronoi module, NoiseAtlas atlas, TileMap map, int chunkX, int chunkY, double xPeriod, double yPeriod) {
+			this.module = module;
+			this.atlas = atlas;
+			this.map = map;
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			this.xPeriod = xPeriod;
+			this.yPeriod = yPeriod;
+		}
+
+		@Override
+		protected void compute() {
+			TileMap.Chunk chunk = map.getChunk(chunkX, chunkY);
+			int rowStart = chunkY << TileMap.CHUNK_SHIFT;
+			int colStart = chunkX << TileMap.CHUNK_SHIFT;
+			int rowEnd = Math.min(rowStart + TileMap.CHUNK_SIZE, map.getHeight());
+			int colEnd = Math.min(colStart + TileMap.CHUNK_SIZE, map.getWidth());
+			for (int row = rowStart; row < rowEnd; row++) {
+				for (int col = colStart; col < colEnd; col++) {
 					
-					final double noise = module.getValue(row / xPeriod, col / yPeriod, 0) / 2;
+					final double noise = module.getValue2D(col / xPeriod, row / yPeriod) / 2;
 
 					double test = Precision.round(noise, 2);
-					tileCount++;
 
-					//System.out.println("test = " + (test));
-					
-					if (test <= .1 ) {
-
-						Tile tile = new Tile(tilex, tiley, true);
-						tile.setType("WATER1");
-						tile.setCurrentImage(GameEngine2.water);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.blue1);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);	
-
-					} else if ((test > .1 && test <= .6)) {
-						Tile tile = new Tile(tilex, tiley, true);
-						tile.setType("WATER2");
-						tile.setCurrentImage(GameEngine2.water);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.blue2);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-
-					} else if ((test > .6 && test <= .62)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("GRASS1");
-						tile.setCurrentImage(GameEngine2.grass);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green1);
-						tile.setTileId(tileCount);
-						tiles.add(tile);
-						
-						
-					} else if ((test > .62 && test <= .65)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("GRASS2");
-						tile.setCurrentImage(GameEngine2.grass2);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green2);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					} else if ((test > .65 && test <= .67)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("GRASS3");
-						tile.setCurrentImage(GameEngine2.grass3);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green2);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					} else if ((test > .67 && test <= .7)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("GRASS4");
-						tile.setCurrentImage(GameEngine2.grass4);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green2);
-						tile.setTileId(tileCount);
-						if (!playerInitSet && (tilex >= GameConstants.WORLD_START_REGION && (tilex <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5))) && (tiley >= GameConstants.WORLD_START_REGION && (tiley <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5)))) {
-							tile.setStartingTile(true);
-							System.out.println("FOUND A START!");
-							setWorldStartX(tilex);
-							setWorldStartY(tiley);
-							playerInitSet = true;
-							
-							
-						}
-						tiles.add(tile);
-						
-						
-					} else if ((test > .7 && test <= .8)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("TREE");
-						tile.setCurrentImage(GameEngine2.tree);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green3);
-						tile.setTileId(tileCount);
-						
-						
-
-						tiles.add(tile);
-					} else if ((test > .8 && test <= .9)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("TREE2");
-						tile.setCurrentImage(GameEngine2.tree3);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green3);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					} else if ((test > .9 && test <= 1)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("TREE");
-						tile.setCurrentImage(GameEngine2.mountain2);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.green3);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					} else if ((test > 1 && test <= 1.2)) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("MOUNTAIN");
-						tile.setCurrentImage(GameEngine2.hills);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(GameConstants.blue4);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					}else if (test > 1.2) {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("MOUNTAIN");
-						tile.setCurrentImage(GameEngine2.tree2);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(Color.MAGENTA);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-					} else {
-						Tile tile = new Tile(tilex, tiley, false);
-						tile.setType("ELSE");
-						tile.setCurrentImage(GameEngine2.water);
-						tile.setNoiseValue(test);
-						tile.setNoiseColor(Color.MAGENTA);
-						tile.setTileId(tileCount);
-
-						tiles.add(tile);
-
-						
-					}
-				}
+					TileType type = decorate(overWorldType(test), atlas, col, row);
 
-				tilex +=tileWidth;
+					chunk.set(TileMap.local(col, row), type.getId(), (float) test, 0);
+				}
 			}
-			tiley +=tileheight;
 		}
-
-		return tiles;
 	}
 
 
@@ -293,26 +272,42 @@ public class World implements Serializable {
 		this.worldType = worldType;
 	}
 	
-	public int getCurrentTileId(int pXC, int pYC, ArrayList<Tile> world) {
+	/*
+	 * Id of the tile under the player, i.e. its index in the map. Worked out from the
+	 * coordinates, falls back to tile 0 when they are off the map like the old scan did.
+	 */
+	public int getCurrentTileId(int pXC, int pYC, TileMap world) {
 		
-		int currentTile = 0;
+		int currentTile = world.indexAt(pXC, pYC);
 		
-		for (int tNum = 0; tNum < world.size(); tNum++) {
-		
-			if (pXC == world.get(tNum).getX() && pYC == world.get(tNum).getY()) {
-				currentTile = tNum;
-				break;
-			}
-			
-		}
-		
-		return currentTile;
+		return currentTile < 0 ? 0 : currentTile;
 		
 	}
 	
-	public static ArrayList<Tile> getRegionByCoordinates(int x, int y, World world) {
+	// id of the tile covering pixel (x, y), -1 when off the map
+	public static int getTileIdAt(TileMap world, int x, int y) {
+		return world.indexAt(x, y);
+	}
+	
+	// id of the tile at grid column and row, -1 when off the map
+	public static int getTileIdAtGrid(TileMap world, int col, int row) {
+		return world.contains(col, row) ? world.index(col, row) : -1;
+	}
+	
+	// kind of tile covering pixel (x, y), null when off the map
+	public static TileType getTileTypeAt(TileMap world, int x, int y) {
+		int tileId = world.indexAt(x, y);
+		return tileId < 0 ? null : TileType.get(world.getType(world.getCol(tileId), world.getRow(tileId)));
+	}
+	
+	// id of the tile dCol columns and dRow rows away from tileId, -1 when off the map
+	public static int getNeighbourTileId(TileMap world, int tileId, int dCol, int dRow) {
+		return world.neighbour(tileId, dCol, dRow);
+	}
+	
+	public static TileMap getRegionByCoordinates(int x, int y, World world) {
 		
-		ArrayList<Tile> activeRegion = new ArrayList<Tile>();
+		TileMap activeRegion = null;
 		
 		for(Region region : World.regions) {
 			
@@ -328,61 +323,118 @@ public class World implements Serializable {
 		
 	}
 
-	public static void render(Graphics2D g, Camera camera, Player player, int pXC, int pYC, World screen, 
-			ArrayList<Tile> world, int xx, int yy, int xscroll, int yscroll, 
-			int cammX, int cammY, int cammXW, int cammYH) {
-		
-		player.me.setBounds(pXC, pYC, GameConstants.playerWidth, GameConstants.playerHeight);
+	// a / b rounded up, for the first tile at or after a pixel
+	private static int ceilDiv(int a, int b) {
+		return -Math.floorDiv(-a, b);
+	}
+
+	/**
+	 * The tiles of map inside the camera (plus the 60 pixel margin above and to the left), as grid
+	 * columns and rows. Worked out once from the camera so the cost follows the screen size, not the
+	 * world size. Empty when the camera is off the map.
+	 */
+	public static Rectangle visibleTiles(Camera camera, TileMap map, int xscroll, int yscroll) {
 		
-		ArrayList<Tile> activeWorld = null;
+		int cammX = camera.getX() - xscroll;
+		int cammY = camera.getY() - yscroll;
+		int cammXW = camera.getXb() - xscroll;
+		int cammYH = camera.getYb() - yscroll;
 		
-		if (overWorldActive) {
-			
-			activeWorld = world;
+		int colStart = Math.max(ceilDiv(cammX - 60, map.getTileWidth()), map.getOriginCol());
+		int colEnd = Math.min(Math.floorDiv(cammXW, map.getTileWidth()), map.getOriginCol() + map.getWidth() - 1);
+		int rowStart = Math.max(ceilDiv(cammY - 60, map.getTileHeight()), map.getOriginRow());
+		int rowEnd = Math.min(Math.floorDiv(cammYH, map.getTileHeight()), map.getOriginRow() + map.getHeight() - 1);
 		
-		} else {
-			
-			activeWorld = getRegionByCoordinates(pXC, pYC, screen);
-			
+		return new Rectangle(colStart, rowStart, Math.max(0, colEnd - colStart + 1), Math.max(0, rowEnd - rowStart + 1));
+	}
+	
+	// highlights laid over water where the animated layer is above 0, faint to strong
+	private static final Color[] SHIMMER = new Color[8];
+	static {
+		for (int i = 0; i < SHIMMER.length; i++) {
+			SHIMMER[i] = new Color(255, 255, 255, 8 * (i + 1));
 		}
-//	   
-		for (int col= 0; col < activeWorld.size();col++) {
-
-			pXC = player.getX();
-			
-			pYC = player.getY();
+	}
 	
-			
-			
-			xx = activeWorld.get(col).getX() + xscroll;
-			yy = activeWorld.get(col).getY() + yscroll;
-			
-			
-			activeWorld.get(col).me.setBounds(xx, yy, GameConstants.tileWidth, GameConstants.tileHeight);
-			cammX = camera.getX() - xscroll;
-			cammY = camera.getY() - yscroll;
-			cammXW = camera.getXb() - xscroll;
-			cammYH = camera.getYb() - yscroll;
-
-
-			if (activeWorld.get(col).getX() >= (cammX - 60) && activeWorld.get(col).getX() <= cammXW && activeWorld.get(col).getY()
-					>= (cammY - 60) && activeWorld.get(col).getY() <= cammYH) {
-				g.drawImage(activeWorld.get(col).getCurrentImage(),xx, yy, GameConstants.tileWidth, GameConstants.tileHeight, null);
+	// water sprites with each shimmer shade already blended in, per tile type, so a shimmering
+	// tile is still one drawImage. Built the first time a type is drawn and again if its sprite changes.
+	private static Image[][] shimmerSprites = new Image[0][];
+	private static Image[] shimmerSources = new Image[0];
 	
+	private static Image shimmerSprite(int id, float value) {
+		Image sprite = TileType.sprite(id);
+		if (sprite == null) {
+			return null;
+		}
+		if (id >= shimmerSprites.length) {
+			shimmerSprites = Arrays.copyOf(shimmerSprites, TileType.count());
+			shimmerSources = Arrays.copyOf(shimmerSources, TileType.count());
+		}
+		if (shimmerSources[id] != sprite) {
+			int w = sprite.getWidth(null);
+			int h = sprite.getHeight(null);
+			// same pixel format as the sprite where there is one, a different one is much slower to draw
+			int imageType = BufferedImage.TYPE_INT_ARGB;
+			if (sprite instanceof BufferedImage && ((BufferedImage) sprite).getType() != BufferedImage.TYPE_CUSTOM) {
+				imageType = ((BufferedImage) sprite).getType();
 			}
+			Image[] shades = new Image[SHIMMER.length];
+			for (int i = 0; i < shades.length; i++) {
+				BufferedImage shade = new BufferedImage(w, h, imageType);
+				Graphics2D g = shade.createGraphics();
+				g.drawImage(sprite, 0, 0, null);
+				g.setColor(SHIMMER[i]);
+				g.fillRect(0, 0, w, h);
+				g.dispose();
+				shades[i] = shade;
+			}
+			shimmerSprites[id] = shades;
+			shimmerSources[id] = sprite;
+		}
+		return shimmerSprites[id][Math.min((int) (value * SHIMMER.length), SHIMMER.length - 1)];
+	}
 	
+	private static boolean isWater(int id) {
+		return id == TileType.WATER1.getId() || id == TileType.WATER2.getId() || id == TileType.REGION_WATER1.getId()
+				|| id == TileType.REGION_WATER2.getId() || id == TileType.REGION_WATER3.getId();
+	}
 	
-//				if (GameEngine2.DEBUG_ENABLED) {
-//					DebugUtil.debugBlockers(g, world, col, xx, yy, pXC, pYC);
-//				}		
-			}
-			
+	// water is the animated layer GameEngine2 keeps on the visible tiles, null draws the water still
+	public static void render(Graphics2D g, Camera camera, Player player, int pXC, int pYC, World screen, 
+			TileMap world, int xx, int yy, int xscroll, int yscroll, AnimatedNoiseLayer water) {
 		
-
+		player.me.setBounds(pXC, pYC, GameConstants.playerWidth, GameConstants.playerHeight);
+		
+		TileMap activeWorld = overWorldActive ? world : getRegionByCoordinates(pXC, pYC, screen);
+		
+		if (activeWorld != null) {
+			
+			Rectangle visible = visibleTiles(camera, activeWorld, xscroll, yscroll);
+			
+			for (int row = visible.y; row < visible.y + visible.height; row++) {
+				
+				int tileY = activeWorld.getY(row) + yscroll;
+				
+				for (int col = visible.x; col < visible.x + visible.width; col++) {
+					
+					short type = activeWorld.getType(col, row);
+					Image sprite = TileType.sprite(type);
+					
+					if (water != null && isWater(type)) {
+						float value = water.getValue(col, row);
+						if (value > 0) {
+							sprite = shimmerSprite(type, value);
+						}
+					}
+					
+					g.drawImage(sprite, activeWorld.getX(col) + xscroll, tileY, GameConstants.tileWidth, GameConstants.tileHeight, null);
+				}
+			}
+		}
 
 		g.drawImage(player.getCurrentImage(), pXC, pYC, GameConstants.playerWidth,GameConstants.playerHeight, null);
 
 
 	}
 
-}
\ No newline at end of file
+}
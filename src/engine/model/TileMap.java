@@ -0,0 +1,284 @@
+package engine.model;
+
+import java.io.Serializable;
+
+/**
+ * A grid of tiles kept as primitive arrays in fixed-size square chunks.
+ *
+ * Each tile is a short TileType id, a float noise value and a byte of flag bits,
+ * 7 bytes in all, instead of a Tile object with its own Rectangle, Vector2D,
+ * Image and Color. Tiles are addressed by grid column and row (pixel / tile size),
+ * or by chunk and the local index inside the chunk when a whole chunk is filled
+ * or walked at once.
+ *
+ * The map covers columns [originCol, originCol + width) and rows
+ * [originRow, originRow + height), so it can sit anywhere on the grid (regions
+ * grow upwards into negative rows). Chunk and local coordinates are relative
+ * to the origin.
+ */
+public class TileMap implements Serializable {
+
+	private static final long serialVersionUID = -3318406717473640186L;
+
+	/** Tiles per side of a chunk, a power of two so chunk and local coordinates are shifts and masks */
+	public static final int CHUNK_SHIFT = 5;
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	public static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** Flag bits, for state of a single tile. What a kind of tile does is in its TileType. */
+	public static final int FLAG_START = 1;
+
+	/** Offsets of the 8 neighbours, clockwise from the one above (rows grow downwards) */
+	private static final int[] NEIGHBOUR_COLS = {0, 1, 1, 1, 0, -1, -1, -1};
+	private static final int[] NEIGHBOUR_ROWS = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+	private final int originCol, originRow;
+	private final int width, height;
+	private final int tileWidth, tileHeight;
+	private final int chunksX, chunksY;
+	private final Chunk[] chunks;
+
+	/**
+	 * One CHUNK_SIZE x CHUNK_SIZE block, row by row. Edge chunks are full size too,
+	 * the part past the edge of the map is never read.
+	 */
+	public static final class Chunk implements Serializable {
+
+		private static final long serialVersionUID = 4620157396003874251L;
+
+		private final short[] types = new short[CHUNK_SIZE * CHUNK_SIZE];
+		private final float[] noise = new float[CHUNK_SIZE * CHUNK_SIZE];
+		private final byte[] flags = new byte[CHUNK_SIZE * CHUNK_SIZE];
+
+		public short getType(int local) {
+			return types[local];
+		}
+
+		public void setType(int local, short type) {
+			types[local] = type;
+		}
+
+		public float getNoise(int local) {
+			return noise[local];
+		}
+
+		public void setNoise(int local, float value) {
+			noise[local] = value;
+		}
+
+		public int getFlags(int local) {
+			return flags[local];
+		}
+
+		public void setFlags(int local, int value) {
+			flags[local] = (byte) value;
+		}
+
+		/** Sets type, noise and flags of one tile in one go, for generators */
+		public void set(int local, short type, float value, int flagBits) {
+			types[local] = type;
+			noise[local] = value;
+			flags[local] = (byte) flagBits;
+		}
+	}
+
+	public TileMap(int width, int height, int tileWidth, int tileHeight) {
+		this(0, 0, width, height, tileWidth, tileHeight);
+	}
+
+	public TileMap(int originCol, int originRow, int width, int height, int tileWidth, int tileHeight) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("map size must be positive");
+		}
+		this.originCol = originCol;
+		this.originRow = originRow;
+		this.width = width;
+		this.height = height;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.chunks = new Chunk[chunksX * chunksY];
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = new Chunk();
+		}
+	}
+
+	public int getOriginCol() {
+		return originCol;
+	}
+
+	public int getOriginRow() {
+		return originRow;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getTileWidth() {
+		return tileWidth;
+	}
+
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	public int getChunksX() {
+		return chunksX;
+	}
+
+	public int getChunksY() {
+		return chunksY;
+	}
+
+	public Chunk getChunk(int chunkX, int chunkY) {
+		return chunks[chunkY * chunksX + chunkX];
+	}
+
+	/** Index of a tile inside its chunk, from its column and row relative to the origin */
+	public static int local(int col, int row) {
+		return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (col & CHUNK_MASK);
+	}
+
+	private Chunk chunkOf(int col, int row) {
+		return chunks[((row - originRow) >> CHUNK_SHIFT) * chunksX + ((col - originCol) >> CHUNK_SHIFT)];
+	}
+
+	private int localOf(int col, int row) {
+		return local(col - originCol, row - originRow);
+	}
+
+	public boolean contains(int col, int row) {
+		return col >= originCol && col < originCol + width && row >= originRow && row < originRow + height;
+	}
+
+	/** Tile index in row-major order from the origin, the same order the old tile list had */
+	public int index(int col, int row) {
+		return (row - originRow) * width + (col - originCol);
+	}
+
+	public int getCol(int index) {
+		return originCol + index % width;
+	}
+
+	public int getRow(int index) {
+		return originRow + index / width;
+	}
+
+	/** Pixel position of the tile's top left corner */
+	public int getX(int col) {
+		return col * tileWidth;
+	}
+
+	public int getY(int row) {
+		return row * tileHeight;
+	}
+
+	/** Grid column of the tile covering pixel x, floored so negative pixels land in negative columns */
+	public int colAt(int x) {
+		return Math.floorDiv(x, tileWidth);
+	}
+
+	public int rowAt(int y) {
+		return Math.floorDiv(y, tileHeight);
+	}
+
+	/** Index of the tile covering pixel (x, y), or -1 when it is off the map */
+	public int indexAt(int x, int y) {
+		int col = colAt(x);
+		int row = rowAt(y);
+		return contains(col, row) ? index(col, row) : -1;
+	}
+
+	/** Index of the tile dCol columns and dRow rows from the one at index, or -1 when that is off the map */
+	public int neighbour(int index, int dCol, int dRow) {
+		int col = getCol(index) + dCol;
+		int row = getRow(index) + dRow;
+		return contains(col, row) ? index(col, row) : -1;
+	}
+
+	/**
+	 * True if any tile overlapping the w x h pixel rectangle at (x, y) blocks movement.
+	 * Only the few cells under the rectangle are looked at, parts off the map never block.
+	 * Overlap is strict like Rectangle.intersects, touching an edge is not a hit.
+	 */
+	public boolean isAreaBlocked(int x, int y, int w, int h) {
+		if (w <= 0 || h <= 0) {
+			return false;
+		}
+		int colStart = Math.max(colAt(x), originCol);
+		int colEnd = Math.min(colAt(x + w - 1), originCol + width - 1);
+		int rowStart = Math.max(rowAt(y), originRow);
+		int rowEnd = Math.min(rowAt(y + h - 1), originRow + height - 1);
+		for (int row = rowStart; row <= rowEnd; row++) {
+			for (int col = colStart; col <= colEnd; col++) {
+				if (TileType.isBlocking(getType(col, row))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Type ids of the 8 tiles around (col, row), clockwise from the one above,
+	 * -1 for those off the map. out needs room for 8.
+	 */
+	public void getNeighbourTypes(int col, int row, short[] out) {
+		for (int i = 0; i < 8; i++) {
+			int c = col + NEIGHBOUR_COLS[i];
+			int r = row + NEIGHBOUR_ROWS[i];
+			out[i] = contains(c, r) ? getType(c, r) : -1;
+		}
+	}
+
+	public short getType(int col, int row) {
+		return chunkOf(col, row).types[localOf(col, row)];
+	}
+
+	public void setType(int col, int row, short type) {
+		chunkOf(col, row).types[localOf(col, row)] = type;
+	}
+
+	public float getNoise(int col, int row) {
+		return chunkOf(col, row).noise[localOf(col, row)];
+	}
+
+	public void setNoise(int col, int row, float value) {
+		chunkOf(col, row).noise[localOf(col, row)] = value;
+	}
+
+	public int getFlags(int col, int row) {
+		return chunkOf(col, row).flags[localOf(col, row)];
+	}
+
+	public void setFlags(int col, int row, int value) {
+		chunkOf(col, row).flags[localOf(col, row)] = (byte) value;
+	}
+
+	public boolean hasFlag(int col, int row, int flag) {
+		return (getFlags(col, row) & flag) != 0;
+	}
+
+	public void setFlag(int col, int row, int flag, boolean on) {
+		int flags = getFlags(col, row);
+		setFlags(col, row, on ? flags | flag : flags & ~flag);
+	}
+
+	public TileType getTileType(int col, int row) {
+		return TileType.get(getType(col, row));
+	}
+
+	public void setTileType(int col, int row, TileType type) {
+		setType(col, row, type.getId());
+	}
+
+	public boolean isBlocking(int col, int row) {
+		return TileType.isBlocking(getType(col, row));
+	}
+}
@@ -0,0 +1,150 @@
+package engine.model;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One kind of tile: its name, sprite, debug colour and whether it blocks
+ * movement or can be gathered. There is a single shared instance per kind and
+ * tiles only store its id, so the renderer and the collision code branch on a
+ * short instead of comparing strings or holding per-tile references.
+ *
+ * All kinds are registered when this class is initialised and never change
+ * afterwards. The sprites are the one exception, they come from the sprite
+ * sheet and are filled in by loadSprites once it has been read.
+ */
+public final class TileType {
+
+	private static final List<TileType> registry = new ArrayList<TileType>();
+
+	// per id, so the hot paths are an array load
+	private static Image[] sprites = new Image[0];
+	private static boolean[] blocking = new boolean[0];
+
+	/* overworld */
+	public static final TileType WATER1 = register("WATER1", 171, GameConstants.blue1, true, false);
+	public static final TileType WATER2 = register("WATER2", 171, GameConstants.blue2, true, false);
+	public static final TileType GRASS1 = register("GRASS1", 0, GameConstants.green1, false, false);
+	public static final TileType GRASS2 = register("GRASS2", 1, GameConstants.green2, false, false);
+	public static final TileType GRASS3 = register("GRASS3", 2, GameConstants.green2, false, false);
+	public static final TileType GRASS4 = register("GRASS4", 3, GameConstants.green2, false, false);
+	public static final TileType TREE = register("TREE", 4, GameConstants.green3, false, false);
+	public static final TileType TREE2 = register("TREE2", 6, GameConstants.green3, false, false);
+	public static final TileType TREE3 = register("TREE3", 43, GameConstants.green3, false, false);
+	public static final TileType TREE4 = register("TREE4", 42, GameConstants.green3, false, false);
+	public static final TileType TREE_MOUNTAIN = register("TREE", 12, GameConstants.green3, false, false);
+	public static final TileType MOUNTAIN_HILLS = register("MOUNTAIN", 13, GameConstants.blue4, false, false);
+	public static final TileType MOUNTAIN = register("MOUNTAIN", 5, Color.MAGENTA, false, false);
+	public static final TileType ELSE = register("ELSE", 171, Color.MAGENTA, false, false);
+
+	/* what a gathered tile turns into */
+	public static final TileType GATHERED = register("GRASS", 0, GameConstants.green1, false, false);
+
+	/* grass regions */
+	public static final TileType REGION_WATER1 = register("WATER", 171, GameConstants.blue1, false, false);
+	public static final TileType REGION_WATER2 = register("WATER", 171, GameConstants.blue2, false, false);
+	public static final TileType REGION_WATER3 = register("WATER", 171, GameConstants.blue3, false, false);
+	public static final TileType REGION_SHORE = register("WATER", 0, GameConstants.blue4, false, false);
+	public static final TileType REGION_GRASS1 = register("grass", 1, GameConstants.green1, false, false);
+	public static final TileType REGION_GRASS2 = register("grass", 2, GameConstants.green2, false, false);
+	public static final TileType REGION_CAMP = register("CAMP", 3, GameConstants.green3, false, false);
+	public static final TileType REGION_GRASS3 = register("GRASS", 1, GameConstants.green4, false, false);
+	public static final TileType REGION_GRASS4 = register("GRASS", 3, GameConstants.green5, false, false);
+	public static final TileType REGION_TEST = register("test", 0, GameConstants.gray1, false, false);
+	public static final TileType REGION_TREE1 = register("TREE", 0, Color.YELLOW, false, false);
+	public static final TileType REGION_TREE2 = register("TREE", 2, GameConstants.gray3, false, false);
+	public static final TileType REGION_TREE3 = register("TREE", 5, Color.red, false, false);
+	public static final TileType REGION_TREE4 = register("TREE", 1, GameConstants.gray5, false, false);
+	public static final TileType REGION_GRASS5 = register("GRASS", 0, GameConstants.gray5, false, false);
+
+	private final short id;
+	private final String name;
+	private final int spriteIndex;
+	private final Color color;
+	private final boolean blocks;
+	private final boolean gatherable;
+
+	private TileType(short id, String name, int spriteIndex, Color color, boolean blocks, boolean gatherable) {
+		this.id = id;
+		this.name = name;
+		this.spriteIndex = spriteIndex;
+		this.color = color;
+		this.blocks = blocks;
+		this.gatherable = gatherable;
+	}
+
+	private static TileType register(String name, int spriteIndex, Color color, boolean blocks, boolean gatherable) {
+		TileType type = new TileType((short) registry.size(), name, spriteIndex, color, blocks, gatherable);
+		registry.add(type);
+		blocking = Arrays.copyOf(blocking, registry.size());
+		blocking[type.id] = blocks;
+		return type;
+	}
+
+	/**
+	 * Resolves every kind's sprite from the sprite sheet, keyed by position in the sheet.
+	 * Called once the sheet is loaded, before anything is drawn.
+	 */
+	public static void loadSprites(Map<Integer, Sprite> sheet) {
+		Image[] loaded = new Image[registry.size()];
+		for (TileType type : registry) {
+			Sprite sprite = sheet.get(type.spriteIndex);
+			loaded[type.id] = sprite == null ? null : sprite.getImage();
+		}
+		sprites = loaded;
+	}
+
+	public static TileType get(int id) {
+		return registry.get(id);
+	}
+
+	public static int count() {
+		return registry.size();
+	}
+
+	/** Sprite of the kind with this id, null until loadSprites has run */
+	public static Image sprite(int id) {
+		return id < sprites.length ? sprites[id] : null;
+	}
+
+	public static boolean isBlocking(int id) {
+		return blocking[id];
+	}
+
+	public short getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getSpriteIndex() {
+		return spriteIndex;
+	}
+
+	public Image getSprite() {
+		return sprite(id);
+	}
+
+	public Color getColor() {
+		return color;
+	}
+
+	public boolean isBlocking() {
+		return blocks;
+	}
+
+	public boolean isGatherable() {
+		return gatherable;
+	}
+
+	@Override
+	public String toString() {
+		return name + "#" + id;
+	}
+}
@@ -0,0 +1,288 @@
+package engine.util;
+
+/*
+ * A time-animated noise layer (water, weather) over the visible part of the map.
+ *
+ * Time walks a circle in the (z, w) plane of 4D OpenSimplex noise, so the
+ * animation loops without a jump, and is only evaluated at keyframes a few
+ * ticks apart. Between two keyframes a tile's value is blended linearly, so a
+ * frame costs one lerp per tile instead of a 4D evaluation.
+ *
+ * Only the camera window is kept. Keyframes 'from' and 'to' are complete
+ * while the one after them is built a slice at a time, spread evenly over the
+ * ticks of the current step, so no tick does more than its share. When the
+ * window scrolls the overlap is copied over and only the tiles that came into
+ * view are evaluated.
+ */
+public class AnimatedNoiseLayer {
+
+	// noise units per tile, same feature size as the regions (col / 5)
+	public static final double DEFAULT_FEATURE_SIZE = 5;
+
+	// ticks between keyframes, 4 keyframes a second at 60 ticks
+	public static final int DEFAULT_TICKS_PER_STEP = 15;
+
+	// keyframes before the animation repeats, 8 seconds at the default step
+	public static final int DEFAULT_STEPS_PER_LOOP = 32;
+
+	// noise units travelled through time in one loop
+	public static final double DEFAULT_LOOP_LENGTH = 4;
+
+	private final OpenSimplexNoise noise;
+	private final double featureSize;
+	private final int ticksPerStep;
+	private final int stepsPerLoop;
+
+	// position of each keyframe on the time circle
+	private final double[] timeZ;
+	private final double[] timeW;
+
+	// window in tile columns and rows
+	private int col0, row0, cols, rows;
+
+	// noise coordinate of each window column and row
+	private double[] xs = new double[0];
+	private double[] ys = new double[0];
+
+	// keyframes step and step + 1, row by row over the window
+	private float[] from = new float[0];
+	private float[] to = new float[0];
+
+	// keyframe step + 2, and which step each of its cells holds (-1 when not built yet)
+	private float[] next = new float[0];
+	private int[] nextStep = new int[0];
+
+	// cells of 'next' still to build, and where the build left off
+	private int pending;
+	private int cursor;
+
+	// the same buffers again, written while moving the window and then swapped in
+	private float[] spareFrom = new float[0];
+	private float[] spareTo = new float[0];
+	private float[] spareNext = new float[0];
+	private int[] spareNextStep = new int[0];
+
+	// keyframe index of 'from' and ticks since it
+	private int step;
+	private int tick;
+
+	public AnimatedNoiseLayer(long seed) {
+		this(seed, DEFAULT_FEATURE_SIZE, DEFAULT_TICKS_PER_STEP, DEFAULT_STEPS_PER_LOOP, DEFAULT_LOOP_LENGTH);
+	}
+
+	public AnimatedNoiseLayer(long seed, double featureSize, int ticksPerStep, int stepsPerLoop, double loopLength) {
+		if (!(featureSize > 0)) {
+			throw new IllegalArgumentException("featureSize must be positive");
+		}
+		if (ticksPerStep <= 0) {
+			throw new IllegalArgumentException("ticksPerStep must be positive");
+		}
+		if (stepsPerLoop < 3) {
+			throw new IllegalArgumentException("stepsPerLoop must be at least 3");
+		}
+		if (!(loopLength > 0)) {
+			throw new IllegalArgumentException("loopLength must be positive");
+		}
+		this.noise = OpenSimplexNoise.forSeed(seed);
+		this.featureSize = featureSize;
+		this.ticksPerStep = ticksPerStep;
+		this.stepsPerLoop = stepsPerLoop;
+
+		// a circle of circumference 'loopLength' has this radius
+		double radius = loopLength / (2 * Math.PI);
+		timeZ = new double[stepsPerLoop];
+		timeW = new double[stepsPerLoop];
+		for (int i = 0; i < stepsPerLoop; i++) {
+			double angle = 2 * Math.PI * i / stepsPerLoop;
+			timeZ[i] = radius * Math.cos(angle);
+			timeW[i] = radius * Math.sin(angle);
+		}
+	}
+
+	/*
+	 * Moves the window to cols [col0, col0 + cols) and rows [row0, row0 + rows).
+	 * Cells still in view keep their keyframes, the rest are evaluated now.
+	 */
+	public void setWindow(int col0, int row0, int cols, int rows) {
+		if (cols < 0 || rows < 0) {
+			throw new IllegalArgumentException("window size must not be negative");
+		}
+		if (col0 == this.col0 && row0 == this.row0 && cols == this.cols && rows == this.rows) {
+			return;
+		}
+
+		int cells = cols * rows;
+		if (spareFrom.length != cells) {
+			spareFrom = new float[cells];
+			spareTo = new float[cells];
+			spareNext = new float[cells];
+			spareNextStep = new int[cells];
+		}
+		if (xs.length != cols) {
+			xs = new double[cols];
+		}
+		if (ys.length != rows) {
+			ys = new double[rows];
+		}
+		for (int c = 0; c < cols; c++) {
+			xs[c] = (col0 + c) / featureSize;
+		}
+		for (int r = 0; r < rows; r++) {
+			ys[r] = (row0 + r) / featureSize;
+		}
+
+		int fromKey = step % stepsPerLoop;
+		int toKey = (step + 1) % stepsPerLoop;
+		int stale = 0;
+
+		for (int r = 0; r < rows; r++) {
+			int oldRow = row0 + r - this.row0;
+			boolean rowInView = oldRow >= 0 && oldRow < this.rows;
+			int cell = r * cols;
+			for (int c = 0; c < cols; c++, cell++) {
+				int oldCol = col0 + c - this.col0;
+				if (rowInView && oldCol >= 0 && oldCol < this.cols) {
+					int old = oldRow * this.cols + oldCol;
+					spareFrom[cell] = from[old];
+					spareTo[cell] = to[old];
+					spareNext[cell] = next[old];
+					spareNextStep[cell] = nextStep[old];
+				} else {
+					spareFrom[cell] = eval(c, r, fromKey);
+					spareTo[cell] = eval(c, r, toKey);
+					spareNextStep[cell] = -1;
+				}
+				if (spareNextStep[cell] != step + 2) {
+					stale++;
+				}
+			}
+		}
+
+		float[] f = from;
+		from = spareFrom;
+		spareFrom = f;
+		f = to;
+		to = spareTo;
+		spareTo = f;
+		f = next;
+		next = spareNext;
+		spareNext = f;
+		int[] s = nextStep;
+		nextStep = spareNextStep;
+		spareNextStep = s;
+
+		this.col0 = col0;
+		this.row0 = row0;
+		this.cols = cols;
+		this.rows = rows;
+		pending = stale;
+		cursor = 0;
+	}
+
+	/*
+	 * One game tick. Builds this tick's share of the next keyframe and moves to it
+	 * once the step is over.
+	 */
+	public void advance() {
+		tick++;
+		if (tick >= ticksPerStep) {
+			// the share below finishes the build on the last tick, this only catches a window
+			// that was resized in the same tick
+			build(pending);
+
+			float[] f = from;
+			from = to;
+			to = next;
+			next = f;
+			step++;
+			tick = 0;
+			pending = from.length;
+			cursor = 0;
+		}
+		// spread what is left evenly over the ticks left, rounding up so the last tick finishes it
+		int ticksLeft = ticksPerStep - tick;
+		build((pending + ticksLeft - 1) / ticksLeft);
+	}
+
+	// builds up to 'budget' stale cells of the next keyframe, starting where the last call stopped
+	private void build(int budget) {
+		int cells = next.length;
+		if (cells == 0) {
+			return;
+		}
+		int target = step + 2;
+		int key = target % stepsPerLoop;
+		int visited = 0;
+		while (budget > 0 && pending > 0 && visited < cells) {
+			if (nextStep[cursor] != target) {
+				next[cursor] = eval(cursor % cols, cursor / cols, key);
+				nextStep[cursor] = target;
+				pending--;
+				budget--;
+			}
+			cursor++;
+			if (cursor == cells) {
+				cursor = 0;
+			}
+			visited++;
+		}
+	}
+
+	private float eval(int c, int r, int key) {
+		return (float) noise.eval(xs[c], ys[r], timeZ[key], timeW[key]);
+	}
+
+	// how far the current frame is between 'from' and 'to', in [0, 1)
+	public float getPhase() {
+		return (float) tick / ticksPerStep;
+	}
+
+	// value in roughly [-1, 1] for the tile at (col, row), blended between the two keyframes
+	public float getValue(int col, int row) {
+		float phase = getPhase();
+		int c = col - col0;
+		int r = row - row0;
+		if (c >= 0 && c < cols && r >= 0 && r < rows) {
+			int cell = r * cols + c;
+			return from[cell] + (to[cell] - from[cell]) * phase;
+		}
+		// outside the window, work it out from scratch
+		double x = col / featureSize;
+		double y = row / featureSize;
+		int fromKey = step % stepsPerLoop;
+		int toKey = (step + 1) % stepsPerLoop;
+		float a = (float) noise.eval(x, y, timeZ[fromKey], timeW[fromKey]);
+		float b = (float) noise.eval(x, y, timeZ[toKey], timeW[toKey]);
+		return a + (b - a) * phase;
+	}
+
+	/*
+	 * The whole window for this frame, row by row, into 'out'.
+	 * out[row * getWindowCols() + col] is the tile at (getWindowCol() + col, getWindowRow() + row).
+	 */
+	public void getValues(float[] out) {
+		if (out.length < from.length) {
+			throw new IllegalArgumentException("out holds " + out.length + " values, window has " + from.length);
+		}
+		float phase = getPhase();
+		for (int cell = 0; cell < from.length; cell++) {
+			out[cell] = from[cell] + (to[cell] - from[cell]) * phase;
+		}
+	}
+
+	public int getWindowCol() {
+		return col0;
+	}
+
+	public int getWindowRow() {
+		return row0;
+	}
+
+	public int getWindowCols() {
+		return cols;
+	}
+
+	public int getWindowRows() {
+		return rows;
+	}
+}
@@ -2,14 +2,14 @@ package engine.util;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.util.ArrayList;
 import java.util.List;
 
 import engine.gfx.Camera;
 import engine.gfx.World;
 import engine.model.GameConstants;
 import engine.model.Player;
-import engine.model.Tile;
+import engine.model.TileMap;
+import engine.model.TileType;
 
 public class DebugUtil {
 	
@@ -22,8 +22,8 @@ public class DebugUtil {
 		g.drawString(message, x, y);
 	}
 	
-	public static void debugBlockers(Graphics2D g, ArrayList<Tile> world, int col, int xx, int yy, int pXc, int pYC) {
-		if (world.get(col).isBlockMovement()) {
+	public static void debugBlockers(Graphics2D g, TileMap world, int col, int row, int xx, int yy, int pXc, int pYC) {
+		if (world.isBlocking(col, row)) {
 			g.setColor(Color.red);
 			g.drawRect(xx, yy, GameConstants.tileWidth, GameConstants.tileHeight);
 		} 
@@ -47,7 +47,7 @@ public class DebugUtil {
 
 	
 	public static void debugRender(Graphics2D g, int xx, int yy,  int pXC, int pYC, 
-				ArrayList<Tile> world, int xscroll, int yscroll, Camera camera, Player player, World screen, boolean spacePressed, int currentTileId) {
+				TileMap world, int xscroll, int yscroll, Camera camera, Player player, World screen, boolean spacePressed, int currentTileId) {
 		
 		
 		g.setColor(Color.red);
@@ -67,22 +67,15 @@ public class DebugUtil {
 
 		g.setColor(Color.white);
 
-		for (int l = 0; l <world.size(); l++) {
+		for (int row = world.getOriginRow(); row < world.getOriginRow() + world.getHeight(); row++) {
+			for (int col = world.getOriginCol(); col < world.getOriginCol() + world.getWidth(); col++) {
 			
-			int tileX = world.get(l).getX() + xscroll;
-			int tileY = world.get(l).getY() + yscroll;
-			
-			if (world.get(l).isBlockMovement()) {
+				int tileX = world.getX(col) + xscroll;
+				int tileY = world.getY(row) + yscroll;
 				
-				Double noiseValue = world.get(l).getNoiseValue();
-				g.setColor(world.get(l).getNoiseColor());
+				Float noiseValue = world.getNoise(col, row);
+				g.setColor(TileType.get(world.getType(col, row)).getColor());
 				g.drawString(noiseValue.toString(), tileX, tileY);
-			}	else {
-				
-				Double noiseValue = world.get(l).getNoiseValue();
-				g.setColor(world.get(l).getNoiseColor());
-				g.drawString(noiseValue.toString(), tileX, tileY);	
-			//	
 			}
 		}
 		g.setColor(Color.orange);
@@ -104,14 +97,17 @@ public class DebugUtil {
 		}
 
 
-		int adjustTileX = world.get(currentTileId).getX() + xscroll;// - GameConstants.halfWorld);
-		int adjustTileY = world.get(currentTileId).getY() + yscroll;// - GameConstants.halfWorld);
+		int currentCol = world.getCol(currentTileId);
+		int currentRow = world.getRow(currentTileId);
+		
+		int adjustTileX = world.getX(currentCol) + xscroll;// - GameConstants.halfWorld);
+		int adjustTileY = world.getY(currentRow) + yscroll;// - GameConstants.halfWorld);
 		
 		
 	
 		String tilex = "Current tile x  + scroll = " + adjustTileX;
 		String tiley = "Current tile y +  scroll = " + adjustTileY;
-		String tileType = "Current tile type = " + world.get(currentTileId).getType();
+		String tileType = "Current tile type = " + world.getTileType(currentCol, currentRow).getName();
 		
 		String xscrollText = "xscroll = " + xscroll;
 		String yscrollText = "yscroll = " + yscroll;
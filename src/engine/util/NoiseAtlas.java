@@ -0,0 +1,118 @@
+package engine.util;
+
+/*
+ * A small set of seamless noise textures baked once at world load.
+ *
+ * Each layer is a size x size grid of OpenSimplex values that wraps in both
+ * directions. The wrap comes from sampling 4D noise on a torus: the texture x
+ * axis walks a circle in the (x, y) plane and the texture y axis walks a
+ * circle in the (z, w) plane, so the first and last column (and row) are
+ * neighbours in noise space and there is no seam.
+ *
+ * Per-tile decoration looks the value up by tile column and row instead of
+ * calling the noise for every tile. Animated effects do not come from here,
+ * they need values that change over time, see AnimatedNoiseLayer.
+ */
+public class NoiseAtlas {
+
+	// number of layers baked at world load and what each is used for
+	public static final int LAYER_DECORATION = 0;
+	public static final int DEFAULT_LAYERS = 1;
+
+	// texels per side, a power of two so wrapping is a mask
+	public static final int DEFAULT_SIZE = 64;
+
+	// noise units travelled across one texture side, same feature size as the regions (col / 5)
+	public static final double DEFAULT_PERIOD = DEFAULT_SIZE / 5.0;
+
+	private final int size;
+	private final int mask;
+	private final int layers;
+
+	// layer after layer, row by row
+	private final float[] texels;
+
+	// lowest and highest value of each layer, so variants spread over the whole range
+	private final float[] min;
+	private final float[] max;
+
+	public NoiseAtlas(long seed) {
+		this(seed, DEFAULT_SIZE, DEFAULT_LAYERS, DEFAULT_PERIOD);
+	}
+
+	public NoiseAtlas(long seed, int size, int layers, double period) {
+		if (size <= 0 || (size & (size - 1)) != 0) {
+			throw new IllegalArgumentException("size must be a positive power of two");
+		}
+		if (layers <= 0) {
+			throw new IllegalArgumentException("layers must be positive");
+		}
+		if (!(period > 0)) {
+			throw new IllegalArgumentException("period must be positive");
+		}
+		this.size = size;
+		this.mask = size - 1;
+		this.layers = layers;
+		this.texels = new float[layers * size * size];
+		this.min = new float[layers];
+		this.max = new float[layers];
+
+		OpenSimplexNoise noise = OpenSimplexNoise.forSeed(seed);
+
+		// a circle of circumference 'period' has this radius
+		double radius = period / (2 * Math.PI);
+
+		// the angles are the same for every row and layer, work them out once
+		double[] cos = new double[size];
+		double[] sin = new double[size];
+		for (int i = 0; i < size; i++) {
+			double angle = 2 * Math.PI * i / size;
+			cos[i] = radius * Math.cos(angle);
+			sin[i] = radius * Math.sin(angle);
+		}
+
+		for (int layer = 0; layer < layers; layer++) {
+
+			// move each layer to its own part of noise space so they are independent
+			double offset = layer * (4 * radius + 16);
+
+			int base = layer * size * size;
+			float lo = Float.MAX_VALUE, hi = -Float.MAX_VALUE;
+			for (int row = 0; row < size; row++) {
+				double z = cos[row] + offset;
+				double w = sin[row] + offset;
+				for (int col = 0; col < size; col++) {
+					float value = (float) noise.eval(cos[col] + offset, sin[col] + offset, z, w);
+					texels[base + row * size + col] = value;
+					lo = Math.min(lo, value);
+					hi = Math.max(hi, value);
+				}
+			}
+			min[layer] = lo;
+			max[layer] = hi;
+		}
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getLayers() {
+		return layers;
+	}
+
+	// value in roughly [-1, 1] at texel (col, row), any int works since the texture wraps
+	public float sample(int layer, int col, int row) {
+		return texels[layer * size * size + (row & mask) * size + (col & mask)];
+	}
+
+	// picks one of 'count' variants for a tile, e.g. which grass or tree image to draw
+	public int variant(int layer, int col, int row, int count) {
+		float range = max[layer] - min[layer];
+		if (range <= 0) {
+			return 0;
+		}
+		int index = (int) ((sample(layer, col, row) - min[layer]) / range * count);
+		return index < 0 ? 0 : (index >= count ? count - 1 : index);
+	}
+}
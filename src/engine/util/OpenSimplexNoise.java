@@ -1,5 +1,10 @@
 package engine.util;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /*
  * OpenSimplex Noise in Java.
  * by Kurt Spencer
@@ -31,8 +36,20 @@ public class OpenSimplexNoise {
 	
 	private static final long DEFAULT_SEED = 0;
 	
-	private short[] perm;
-	private short[] permGradIndex3D;
+	//Most seeds kept in the shared permutation table cache, least recently used go first.
+	private static final int TABLE_CACHE_SIZE = 64;
+	
+	private static final Map<Long, PermTable> tableCache = new LinkedHashMap<Long, PermTable>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, PermTable> eldest) {
+			return size() > TABLE_CACHE_SIZE;
+		}
+	};
+	
+	private final short[] perm;
+	private final short[] permGradIndex3D;
 	
 	public OpenSimplexNoise() {
 		this(DEFAULT_SEED);
@@ -49,26 +66,34 @@ public class OpenSimplexNoise {
 	}
 	
 	//Initializes the class using a permutation array generated from a 64-bit seed.
-	//Generates a proper permutation (i.e. doesn't merely perform N successive pair swaps on a base array)
-	//Uses a simple 64-bit LCG.
+	//Builds its own tables, forSeed shares them with every other instance for the same seed.
 	public OpenSimplexNoise(long seed) {
-		perm = new short[256];
-		permGradIndex3D = new short[256];
-		short[] source = new short[256];
-		for (short i = 0; i < 256; i++)
-			source[i] = i;
-		seed = seed * 6364136223846793005l + 1442695040888963407l;
-		seed = seed * 6364136223846793005l + 1442695040888963407l;
-		seed = seed * 6364136223846793005l + 1442695040888963407l;
-		for (int i = 255; i >= 0; i--) {
-			seed = seed * 6364136223846793005l + 1442695040888963407l;
-			int r = (int)((seed + 31) % (i + 1));
-			if (r < 0)
-				r += (i + 1);
-			perm[i] = source[r];
-			permGradIndex3D[i] = (short)((perm[i] % (gradients3D.length / 3)) * 3);
-			source[r] = source[i];
+		this(new PermTable(seed));
+	}
+	
+	private OpenSimplexNoise(PermTable table) {
+		perm = table.perm;
+		permGradIndex3D = table.permGradIndex3D;
+	}
+	
+	//An instance for the seed, viewing a permutation table from the shared cache.
+	//Same values as new OpenSimplexNoise(seed), but the shuffle only runs the first time a seed
+	//is seen (or after it has been evicted). Safe to call from several threads.
+	public static OpenSimplexNoise forSeed(long seed) {
+		PermTable table;
+		synchronized (tableCache) {
+			table = tableCache.get(seed);
+		}
+		if (table == null) {
+			//shuffle outside the lock, if two threads race for a seed the first one in wins
+			PermTable built = new PermTable(seed);
+			synchronized (tableCache) {
+				table = tableCache.putIfAbsent(seed, built);
+			}
+			if (table == null)
+				table = built;
 		}
+		return new OpenSimplexNoise(table);
 	}
 	
 	//2D OpenSimplex Noise.
@@ -76,8 +101,11 @@ public class OpenSimplexNoise {
 	
 		//Place input coordinates onto grid.
 		double stretchOffset = (x + y) * STRETCH_CONSTANT_2D;
-		double xs = x + stretchOffset;
-		double ys = y + stretchOffset;
+		return evalStretched(x, y, x + stretchOffset, y + stretchOffset);
+	}
+	
+	//2D OpenSimplex Noise at (x, y), given its coordinates (xs, ys) already placed onto the grid.
+	private double evalStretched(double x, double y, double xs, double ys) {
 		
 		//Floor to get grid coordinates of rhombus (stretched square) super-cell origin.
 		int xsb = fastFloor(xs);
@@ -191,9 +219,11 @@ public class OpenSimplexNoise {
 	
 		//Place input coordinates on simplectic honeycomb.
 		double stretchOffset = (x + y + z) * STRETCH_CONSTANT_3D;
-		double xs = x + stretchOffset;
-		double ys = y + stretchOffset;
-		double zs = z + stretchOffset;
+		return evalStretched(x, y, z, x + stretchOffset, y + stretchOffset, z + stretchOffset);
+	}
+	
+	//3D OpenSimplex Noise at (x, y, z), given its coordinates (xs, ys, zs) already placed on the honeycomb.
+	private double evalStretched(double x, double y, double z, double xs, double ys, double zs) {
 		
 		//Floor to get simplectic honeycomb coordinates of rhombohedron (stretched cube) super-cell origin.
 		int xsb = fastFloor(xs);
@@ -2061,6 +2091,141 @@ public class OpenSimplexNoise {
 		return value / NORM_CONSTANT_4D;
 	}
 	
+	//Rows of a 2D grid per fork/join task when evaluating in parallel.
+	private static final int GRID_STRIP_ROWS = 16;
+	
+	//Batch 2D OpenSimplex Noise over the grid xs x ys, written row-major into out
+	//so that out[row * xs.length + col] is eval(xs[col], ys[row]) up to rounding (see evalRows),
+	//not bit for bit: a point next to a lattice edge can move by a few 1e-5.
+	//Allocates nothing, the caller owns and can reuse out.
+	public void evalGrid(double[] out, double[] xs, double[] ys) {
+		evalRows(out, xs, ys, 0, ys.length);
+	}
+	
+	//Batch 3D OpenSimplex Noise over the plane xs x ys at a fixed z, same layout as above.
+	public void evalGrid(double[] out, double[] xs, double[] ys, double z) {
+		evalRows(out, xs, ys, z, 0, ys.length);
+	}
+	
+	//2D batch for rows [rowStart, rowEnd) only. Strips of the same grid can be filled
+	//from different threads, the permutation tables are never written after construction.
+	//The stretch is split into a row part, worked out once per row, and a column part, so
+	//a point can land a rounding error away from where eval(x, y) puts it.
+	public void evalRows(double[] out, double[] xs, double[] ys, int rowStart, int rowEnd) {
+		checkGrid(out, xs, ys, rowStart, rowEnd);
+		int width = xs.length;
+		for (int row = rowStart; row < rowEnd; row++) {
+			double y = ys[row];
+			double rowStretch = y * STRETCH_CONSTANT_2D;
+			int index = row * width;
+			for (int col = 0; col < width; col++) {
+				double x = xs[col];
+				double stretchOffset = x * STRETCH_CONSTANT_2D + rowStretch;
+				out[index++] = evalStretched(x, y, x + stretchOffset, y + stretchOffset);
+			}
+		}
+	}
+	
+	//3D batch for rows [rowStart, rowEnd) at a fixed z, y and z share the row part of the stretch.
+	public void evalRows(double[] out, double[] xs, double[] ys, double z, int rowStart, int rowEnd) {
+		checkGrid(out, xs, ys, rowStart, rowEnd);
+		int width = xs.length;
+		for (int row = rowStart; row < rowEnd; row++) {
+			double y = ys[row];
+			double rowStretch = (y + z) * STRETCH_CONSTANT_3D;
+			int index = row * width;
+			for (int col = 0; col < width; col++) {
+				double x = xs[col];
+				double stretchOffset = x * STRETCH_CONSTANT_3D + rowStretch;
+				out[index++] = evalStretched(x, y, z, x + stretchOffset, y + stretchOffset, z + stretchOffset);
+			}
+		}
+	}
+	
+	//evalGrid split into strips of rows on the common fork/join pool. Same values as the
+	//sequential call, only worth it once the grid is a few thousand points.
+	public void evalGridParallel(double[] out, double[] xs, double[] ys) {
+		checkGrid(out, xs, ys, 0, ys.length);
+		ForkJoinPool.commonPool().invoke(new GridStrip(this, out, xs, ys, 0.0, false, 0, ys.length));
+	}
+	
+	public void evalGridParallel(double[] out, double[] xs, double[] ys, double z) {
+		checkGrid(out, xs, ys, 0, ys.length);
+		ForkJoinPool.commonPool().invoke(new GridStrip(this, out, xs, ys, z, true, 0, ys.length));
+	}
+	
+	private static void checkGrid(double[] out, double[] xs, double[] ys, int rowStart, int rowEnd) {
+		if (rowStart < 0 || rowEnd > ys.length || rowStart > rowEnd)
+			throw new IllegalArgumentException("rows [" + rowStart + ", " + rowEnd + ") outside 0.." + ys.length);
+		if (out.length < rowEnd * xs.length)
+			throw new IllegalArgumentException("out holds " + out.length + " values, grid needs " + rowEnd * xs.length);
+	}
+	
+	//Rows [rowStart, rowEnd) of a grid, halved until a strip is small enough to evaluate directly.
+	private static final class GridStrip extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final OpenSimplexNoise noise;
+		private final double[] out, xs, ys;
+		private final double z;
+		private final boolean is3D;
+		private final int rowStart, rowEnd;
+		
+		GridStrip(OpenSimplexNoise noise, double[] out, double[] xs, double[] ys, double z, boolean is3D, int rowStart, int rowEnd) {
+			this.noise = noise;
+			this.out = out;
+			this.xs = xs;
+			this.ys = ys;
+			this.z = z;
+			this.is3D = is3D;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+		}
+		
+		@Override
+		protected void compute() {
+			if (rowEnd - rowStart <= GRID_STRIP_ROWS) {
+				if (is3D)
+					noise.evalRows(out, xs, ys, z, rowStart, rowEnd);
+				else
+					noise.evalRows(out, xs, ys, rowStart, rowEnd);
+				return;
+			}
+			int mid = (rowStart + rowEnd) >>> 1;
+			invokeAll(new GridStrip(noise, out, xs, ys, z, is3D, rowStart, mid),
+					new GridStrip(noise, out, xs, ys, z, is3D, mid, rowEnd));
+		}
+	}
+	
+	//Permutation tables for one seed. Never written after construction, so any number
+	//of instances and threads can read the same pair of arrays.
+	private static final class PermTable {
+		
+		private final short[] perm = new short[256];
+		private final short[] permGradIndex3D = new short[256];
+		
+		//Generates a proper permutation (i.e. doesn't merely perform N successive pair swaps on a base array)
+		//Uses a simple 64-bit LCG.
+		PermTable(long seed) {
+			short[] source = new short[256];
+			for (short i = 0; i < 256; i++)
+				source[i] = i;
+			seed = seed * 6364136223846793005l + 1442695040888963407l;
+			seed = seed * 6364136223846793005l + 1442695040888963407l;
+			seed = seed * 6364136223846793005l + 1442695040888963407l;
+			for (int i = 255; i >= 0; i--) {
+				seed = seed * 6364136223846793005l + 1442695040888963407l;
+				int r = (int)((seed + 31) % (i + 1));
+				if (r < 0)
+					r += (i + 1);
+				perm[i] = source[r];
+				permGradIndex3D[i] = (short)((perm[i] % (gradients3D.length / 3)) * 3);
+				source[r] = source[i];
+			}
+		}
+	}
+	
 	private double extrapolate(int xsb, int ysb, double dx, double dy)
 	{
 		int index = perm[(perm[xsb & 0xFF] + ysb) & 0xFF] & 0x0E;
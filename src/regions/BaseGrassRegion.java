@@ -1,178 +1,68 @@
 package regions;
 
-import java.awt.Color;
-import java.util.ArrayList;
 import java.util.Random;
 
 import org.apache.commons.math3.util.Precision;
 
-import engine.core.GameEngine2;
 import engine.model.GameConstants;
-import engine.model.Tile;
+import engine.model.TileMap;
+import engine.model.TileType;
 import engine.util.OpenSimplexNoise;
 
 public class BaseGrassRegion extends Region {
 	
+	// the region used to be a z = 1 slice of 3D noise, the 2D noise is about twice as cheap
+	// but spreads wider (rms 0.369 against 0.314), this brings it back so the bands keep their share
+	private static final double PLANAR_SCALE = 0.85;
 
 
-	public static ArrayList<Tile> generate(int size, int tileWidth, int tileHeight, int playerStartX, int playerStartY, String regionType) {
+	public static TileMap generate(int size, int tileWidth, int tileHeight, int playerStartX, int playerStartY, String regionType) {
+		return generate(size, tileWidth, tileHeight, playerStartX, playerStartY, regionType, new Random().nextLong());
+	}
+
+	// same seed, same region: the permutation table comes from the shared cache so regenerating is cheap
+	public static TileMap generate(int size, int tileWidth, int tileHeight, int playerStartX, int playerStartY, String regionType, long seed) {
 		
 		double FEATURE_SIZE = 5;
 		
 		int tilex = 0;
 		int tiley = 0;
-		int tileCount = 0;
 
-		ArrayList<Tile> tiles = new ArrayList<Tile>();	
+		// tiles go right and up from the origin, so the rows are 0, -1, ... -(size - 1)
+		TileMap tiles = new TileMap(0, -(size - 1), size, size, tileWidth, tileHeight);
 		
-		long generatedLong = new Random().nextLong();
-
-		OpenSimplexNoise noise = new OpenSimplexNoise(generatedLong);
+		OpenSimplexNoise noise = OpenSimplexNoise.forSeed(seed);
+		
+		// the whole region in one batch, grid[row * size + col] is the noise at (col, row)
+		double[] axis = new double[size];
+		for (int i = 0; i < size; i++) {
+			axis[i] = i / FEATURE_SIZE;
+		}
+		double[] grid = new double[size * size];
+		noise.evalGridParallel(grid, axis, axis);
 		
 		for (int col= 0; col < size; col++) {
 			
 			tilex = 0;
-			tileCount++;
 			
 			for (int row = 0; row < size; row++) {
 				
-				tileCount++;
-
-				double value = noise.eval(col / FEATURE_SIZE, row / FEATURE_SIZE, 1.0);
+				double value = grid[row * size + col] * PLANAR_SCALE;
 				
 
 				double test = Precision.round((value + 1), 2);
 
-				if (test <= .1) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("WATER");
-					tile.setCurrentImage(GameEngine2.water);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.blue1);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .1 && test <= .2)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("WATER");
-					tile.setCurrentImage(GameEngine2.water);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.blue2);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-					
-				} else if ((test > .2 && test <= .3)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("WATER");
-					tile.setCurrentImage(GameEngine2.water);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.blue3);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .3 && test <= .4)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("WATER");
-					tile.setCurrentImage(GameEngine2.grass);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.blue4);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .4 && test <= .5)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("grass");
-					tile.setCurrentImage(GameEngine2.grass2);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.green1);
-					tile.setTileId(tileCount);
-					if (!playerInitSet && (tilex >= GameConstants.WORLD_START_REGION && (tilex <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5))) && (tiley >= GameConstants.WORLD_START_REGION && (tiley <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5)))) {
-						tile.setStartingTile(true);
-						System.out.println("FOUND A START!");
-						setRegionStartX(tilex);
-						setRegionStartY(tiley);
-						playerInitSet = true;
-					}
-					tiles.add(tile);
-				} else if ((test > .5 && test <= .6)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("grass");
-					tile.setCurrentImage(GameEngine2.grass3);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.green2);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .6 && test <= .7)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("CAMP");
-					tile.setCurrentImage(GameEngine2.grass4);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.green3);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-					
-				} else if ((test > .7 && test <= .8)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("GRASS");
-				    tile.setCurrentImage(GameEngine2.grass2);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.green4);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .8 && test <= .9)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("GRASS");
-					tile.setCurrentImage(GameEngine2.grass4);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.green5);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > .9 && test <= 1)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("test");
-					tile.setCurrentImage(GameEngine2.grass);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.gray1);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > 1 && test <= 1.2)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("TREE");
-					tile.setCurrentImage(GameEngine2.grass);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(Color.YELLOW);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				}else if ((test > 1.2 && test <= 1.3)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("TREE");
-					tile.setCurrentImage(GameEngine2.grass3);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.gray3);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > 1.3 && test <= 1.4)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("TREE");
-					tile.setCurrentImage(GameEngine2.tree2);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(Color.red);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if ((test > 1.4 && test <= 1.5)) {
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("TREE");
-					tile.setCurrentImage(GameEngine2.grass2);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.gray5);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
-				} else if (test > 1.5) {
-					
-					Tile tile = new Tile(tilex, -tiley, false);
-					tile.setType("GRASS");
-					tile.setCurrentImage(GameEngine2.grass);
-					tile.setNoiseValue(test);
-					tile.setNoiseColor(GameConstants.gray5);
-					tile.setTileId(tileCount);
-					tiles.add(tile);
+				TileType type = regionTileType(test);
+				
+				tiles.setType(row, -col, type.getId());
+				tiles.setNoise(row, -col, (float) test);
+				
+				if (type == TileType.REGION_GRASS1 && !playerInitSet && (tilex >= GameConstants.WORLD_START_REGION && (tilex <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5))) && (tiley >= GameConstants.WORLD_START_REGION && (tiley <= GameConstants.WORLD_START_REGION + (GameConstants.WORLD_SIZE * 5)))) {
+					tiles.setFlag(row, -col, TileMap.FLAG_START, true);
+					System.out.println("FOUND A START!");
+					setRegionStartX(tilex);
+					setRegionStartY(tiley);
+					playerInitSet = true;
 				}
 
 				tilex +=tileWidth;
@@ -185,5 +75,39 @@ public class BaseGrassRegion extends Region {
 		
 	}
 	
+	private static TileType regionTileType(double test) {
+		
+		if (test <= .1) {
+			return TileType.REGION_WATER1;
+		} else if ((test > .1 && test <= .2)) {
+			return TileType.REGION_WATER2;
+		} else if ((test > .2 && test <= .3)) {
+			return TileType.REGION_WATER3;
+		} else if ((test > .3 && test <= .4)) {
+			return TileType.REGION_SHORE;
+		} else if ((test > .4 && test <= .5)) {
+			return TileType.REGION_GRASS1;
+		} else if ((test > .5 && test <= .6)) {
+			return TileType.REGION_GRASS2;
+		} else if ((test > .6 && test <= .7)) {
+			return TileType.REGION_CAMP;
+		} else if ((test > .7 && test <= .8)) {
+			return TileType.REGION_GRASS3;
+		} else if ((test > .8 && test <= .9)) {
+			return TileType.REGION_GRASS4;
+		} else if ((test > .9 && test <= 1)) {
+			return TileType.REGION_TEST;
+		} else if ((test > 1 && test <= 1.2)) {
+			return TileType.REGION_TREE1;
+		} else if ((test > 1.2 && test <= 1.3)) {
+			return TileType.REGION_TREE2;
+		} else if ((test > 1.3 && test <= 1.4)) {
+			return TileType.REGION_TREE3;
+		} else if ((test > 1.4 && test <= 1.5)) {
+			return TileType.REGION_TREE4;
+		} else {
+			return TileType.REGION_GRASS5;
+		}
+	}
 	
 }
@@ -1,8 +1,6 @@
 package regions;
 
-import java.util.ArrayList;
-
-import engine.model.Tile;
+import engine.model.TileMap;
 
 public class Region {
 	
@@ -18,14 +16,22 @@ public class Region {
 	
 	public int regionID = 0;
 	
-	public ArrayList<Tile> region = new ArrayList<Tile>();
+	public TileMap region;
 	
-	public static ArrayList<Tile> generate(int size, int tileWidth, int tileHeight, int playerStartX, int playerStartY, String regionType) {
-		ArrayList<Tile> region = new ArrayList<Tile>();
-		return region;
+	public static TileMap generate(int size, int tileWidth, int tileHeight, int playerStartX, int playerStartY, String regionType) {
+		return null;
 	}
 	
 	
+	// seed for the region at (regionX, regionY) of a world, so a region comes back the same every time it is generated
+	public static long regionSeed(long worldSeed, int regionX, int regionY) {
+		long h = worldSeed ^ (((long) regionX << 32) | (regionY & 0xFFFFFFFFL));
+		// splitmix64 finaliser, neighbouring regions end up with unrelated seeds
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+	
 	public int getRegionStartX() {
 		return regionStartX;
 	}
@@ -86,11 +92,11 @@ public class Region {
 		this.regionID = regionID;
 	}
 
-	public ArrayList<Tile> getRegion() {
+	public TileMap getRegion() {
 		return region;
 	}
 
-	public void setRegion(ArrayList<Tile> region) {
+	public void setRegion(TileMap region) {
 		this.region = region;
 	}
 }
@@ -118,6 +118,48 @@ public final class Utils {
         }
     }
 
+    /**
+     * Returns the number of octaves of a fractal noise function that can be seen when it is sampled at a given spacing.
+     *
+     * @param frequency The frequency of the first octave.
+     * @param lacunarity The frequency multiplier between successive octaves.
+     * @param octaveCount The number of octaves.
+     * @param footprint The distance between neighbouring samples; 0 keeps every octave.
+     * @return A number between 1 and @a octaveCount.  Its integer part is the number of octaves that are evaluated at full strength, its fractional part the weight of the octave after them.
+     * <p/>
+     * An octave is dropped once its frequency reaches half the sampling rate, as it then has less than two samples per period and only adds aliasing.  Over the octave below that, its weight falls
+     * linearly with the logarithm of its frequency, so the output changes smoothly as the footprint changes.  The first octave is always kept.
+     */
+    public static double lodOctaveCount(double frequency, double lacunarity, int octaveCount, double footprint) {
+        double sampledFrequency = Math.abs(frequency) * footprint;
+        if (!(sampledFrequency > 0.0) || !(lacunarity > 1.0)) {
+            return octaveCount;
+        }
+        double octaves = Math.log(0.5 / sampledFrequency) / Math.log(lacunarity);
+        return Math.max(1.0, Math.min(octaveCount, octaves));
+    }
+
+    /**
+     * Returns the number of sorted values that are not greater than a value, or the length if the value is NaN.
+     *
+     * @param values The sorted values.
+     * @param size The number of values; must be at least 1.
+     * @param value The value to look up.
+     * @return The index of the first value that is greater than @a value.
+     * <p/>
+     * The loop runs a fixed number of times for a given size and only moves the base with a conditional, so it does not depend on branch prediction.
+     */
+    public static int upperBound(double[] values, int size, double value) {
+        int base = 0;
+        int length = size;
+        while (length > 1) {
+            int half = length >>> 1;
+            base = (value < values[base + half]) ? base : base + half;
+            length -= half;
+        }
+        return (value < values[base]) ? base : base + 1;
+    }
+
     /**
      * Clamps the value between the low and high boundaries
      *
@@ -0,0 +1,737 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import spongepowered.noise.module.Cache;
+import spongepowered.noise.module.Module;
+import spongepowered.noise.module.ThreadLocalCache;
+import spongepowered.noise.module.combiner.Add;
+import spongepowered.noise.module.combiner.Blend;
+import spongepowered.noise.module.combiner.Displace;
+import spongepowered.noise.module.combiner.Max;
+import spongepowered.noise.module.combiner.Min;
+import spongepowered.noise.module.combiner.Multiply;
+import spongepowered.noise.module.combiner.Power;
+import spongepowered.noise.module.combiner.Select;
+import spongepowered.noise.module.modifier.Abs;
+import spongepowered.noise.module.modifier.Clamp;
+import spongepowered.noise.module.modifier.Curve;
+import spongepowered.noise.module.modifier.Exponent;
+import spongepowered.noise.module.modifier.Invert;
+import spongepowered.noise.module.modifier.Range;
+import spongepowered.noise.module.modifier.RotatePoint;
+import spongepowered.noise.module.modifier.ScaleBias;
+import spongepowered.noise.module.modifier.ScalePoint;
+import spongepowered.noise.module.modifier.Terrace;
+import spongepowered.noise.module.modifier.TranslatePoint;
+import spongepowered.noise.module.modifier.Turbulence;
+import spongepowered.noise.module.source.Billow;
+import spongepowered.noise.module.source.Checkerboard;
+import spongepowered.noise.module.source.Const;
+import spongepowered.noise.module.source.Cylinders;
+import spongepowered.noise.module.source.Perlin;
+import spongepowered.noise.module.source.RidgedMulti;
+import spongepowered.noise.module.source.Spheres;
+import spongepowered.noise.module.source.Voronoi;
+
+/**
+ * Rewrites a graph of noise modules into a smaller graph that produces the same output values.
+ * <p/>
+ * The optimiser applies the following rewrites, bottom up:
+ * <ul>
+ * <li>Modules whose output does not depend on the input value, because every source module they read is a Const, are replaced by a Const holding their output value.  A Select or Blend whose
+ * control module is a Const that selects a single source module is replaced by that source module.</li>
+ * <li>Add and Multiply with a Const source module, and Invert and Range over a ScaleBias, are rewritten as a ScaleBias.  Chains of ScaleBias, ScalePoint or TranslatePoint modules are merged into a
+ * single module, and modules that leave their input unchanged (a ScaleBias with scale 1 and bias 0, a ScalePoint with scale 1, a TranslatePoint with translation 0 and so on) are removed.</li>
+ * <li>Modules of the same class with the same parameters and the same source modules are merged into one module, so a subgraph that was built twice is evaluated once.</li>
+ * <li>A module that is read by more than one parent is wrapped in a Cache, or a ThreadLocalCache when the graph is used by several threads, so the parents share its output value.</li>
+ * </ul>
+ * The graph that is passed to the optimiser is not modified; modules that are rewritten are copied.  Only the module classes of this library are rewritten.  Modules of other classes, including
+ * subclasses of the library modules, are kept with their source modules as they are.
+ * <p/>
+ * The optimised graph produces the same output values as the original graph, except that merged affine modules compute their scale and bias once, so their output can differ from the original
+ * chain in the last bits of the mantissa, and a result of negative zero may become positive zero.
+ */
+public final class GraphOptimizer {
+    private GraphOptimizer() {
+    }
+
+    /**
+     * Optimises the graph whose output is produced by @a module.
+     * <p/>
+     * Shared modules are cached with a ThreadLocalCache, so the optimised graph may be evaluated by several threads at once, as a parallel NoiseMapBuilder does.  Use
+     * {@link #optimize(Module, boolean)} to get plain Cache modules for a graph that only one thread evaluates.
+     *
+     * @param module The module that produces the output of the graph.
+     * @return The optimised graph and a summary of the rewrites.
+     * @throws spongepowered.noise.exception.NoModuleException if a required source module is missing.
+     */
+    public static Result optimize(Module module) {
+        return optimize(module, true);
+    }
+
+    /**
+     * Optimises the graph whose output is produced by @a module.
+     *
+     * @param module The module that produces the output of the graph.
+     * @param concurrent Whether the optimised graph is evaluated by several threads at once; shared modules are then cached with a ThreadLocalCache instead of a Cache.
+     * @return The optimised graph and a summary of the rewrites.
+     * @throws spongepowered.noise.exception.NoModuleException if a required source module is missing.
+     */
+    public static Result optimize(Module module, boolean concurrent) {
+        if (module == null) {
+            throw new IllegalArgumentException("module cannot be null");
+        }
+        Optimizer optimizer = new Optimizer(concurrent);
+        Module optimized = optimizer.cacheShared(optimizer.rewrite(module));
+        return new Result(optimized, countNodes(module), countNodes(optimized), optimizer.foldedConstantCount, optimizer.mergedModifierCount, optimizer.mergedSubgraphCount,
+                optimizer.insertedCacheCount);
+    }
+
+    /**
+     * The outcome of an optimisation.
+     */
+    public static final class Result {
+        // The module that produces the output of the optimised graph.
+        private final Module module;
+        // Number of distinct modules in the original graph.
+        private final int originalNodeCount;
+        // Number of distinct modules in the optimised graph.
+        private final int nodeCount;
+        // Number of modules replaced by a Const or by one of their source
+        // modules.
+        private final int foldedConstantCount;
+        // Number of modules merged into, or removed from, affine chains.
+        private final int mergedModifierCount;
+        // Number of modules merged into an identical module.
+        private final int mergedSubgraphCount;
+        // Number of caches inserted for shared modules.
+        private final int insertedCacheCount;
+
+        Result(Module module, int originalNodeCount, int nodeCount, int foldedConstantCount, int mergedModifierCount, int mergedSubgraphCount, int insertedCacheCount) {
+            this.module = module;
+            this.originalNodeCount = originalNodeCount;
+            this.nodeCount = nodeCount;
+            this.foldedConstantCount = foldedConstantCount;
+            this.mergedModifierCount = mergedModifierCount;
+            this.mergedSubgraphCount = mergedSubgraphCount;
+            this.insertedCacheCount = insertedCacheCount;
+        }
+
+        public Module getModule() {
+            return module;
+        }
+
+        public int getOriginalNodeCount() {
+            return originalNodeCount;
+        }
+
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Returns the number of modules the optimiser removed from the graph; inserted caches are not counted against it.
+         */
+        public int getRemovedNodeCount() {
+            return originalNodeCount - (nodeCount - insertedCacheCount);
+        }
+
+        public int getFoldedConstantCount() {
+            return foldedConstantCount;
+        }
+
+        public int getMergedModifierCount() {
+            return mergedModifierCount;
+        }
+
+        public int getMergedSubgraphCount() {
+            return mergedSubgraphCount;
+        }
+
+        public int getInsertedCacheCount() {
+            return insertedCacheCount;
+        }
+
+        @Override
+        public String toString() {
+            return "GraphOptimizer.Result{nodes " + originalNodeCount + " -> " + nodeCount + ", removed " + getRemovedNodeCount() + ", folded " + foldedConstantCount + ", merged modifiers "
+                    + mergedModifierCount + ", merged subgraphs " + mergedSubgraphCount + ", inserted caches " + insertedCacheCount + "}";
+        }
+    }
+
+    // Counts the distinct modules reachable from a module.
+    static int countNodes(Module module) {
+        Map<Module, Boolean> visited = new IdentityHashMap<Module, Boolean>();
+        List<Module> pending = new ArrayList<Module>();
+        pending.add(module);
+        while (!pending.isEmpty()) {
+            Module next = pending.remove(pending.size() - 1);
+            if (visited.put(next, Boolean.TRUE) == null) {
+                for (int i = 0; i < next.getSourceModuleCount(); i++) {
+                    pending.add(next.getSourceModule(i));
+                }
+            }
+        }
+        return visited.size();
+    }
+
+    private static final class Optimizer {
+        // Whether shared modules are cached with a ThreadLocalCache.
+        private final boolean concurrent;
+        // Rewritten modules by original module.
+        private final Map<Module, Module> rewritten = new IdentityHashMap<Module, Module>();
+        // Modules by their class, parameters and source modules.
+        private final Map<List<Object>, Module> canonical = new HashMap<List<Object>, Module>();
+        // Modules of the optimised graph with caches inserted, by module.
+        private final Map<Module, Module> cached = new IdentityHashMap<Module, Module>();
+        // The cache inserted for each shared module.
+        private final Map<Module, Module> caches = new IdentityHashMap<Module, Module>();
+        int foldedConstantCount;
+        int mergedModifierCount;
+        int mergedSubgraphCount;
+        int insertedCacheCount;
+
+        Optimizer(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+
+        Module rewrite(Module module) {
+            Module result = rewritten.get(module);
+            if (result == null) {
+                if (isRewritable(module)) {
+                    Module[] sources = new Module[module.getSourceModuleCount()];
+                    for (int i = 0; i < sources.length; i++) {
+                        sources[i] = rewrite(module.getSourceModule(i));
+                    }
+                    result = canonicalize(simplify(withSources(module, sources)));
+                } else {
+                    result = canonicalize(module);
+                }
+                rewritten.put(module, result);
+            }
+            return result;
+        }
+
+        // Applies the local rewrites to a module whose source modules have
+        // already been rewritten.
+        private Module simplify(Module module) {
+            Class<?> type = module.getClass();
+            if (isConstant(module)) {
+                foldedConstantCount++;
+                return constant(module.getValue(0.0, 0.0, 0.0));
+            }
+            if (type == Cache.class || type == ThreadLocalCache.class) {
+                Module source = module.getSourceModule(0);
+                if (source.getClass() == Cache.class || source.getClass() == ThreadLocalCache.class) {
+                    mergedModifierCount++;
+                    return source;
+                }
+            } else if (type == Select.class) {
+                Module selected = selectedSource((Select) module);
+                if (selected != null) {
+                    foldedConstantCount++;
+                    return selected;
+                }
+            } else if (type == Blend.class) {
+                Module control = module.getSourceModule(2);
+                if (control instanceof Const) {
+                    // Blend.getValue() returns a single source module for these
+                    // control values.
+                    double alpha = ((Const) control).getValue();
+                    if (alpha == 0.0 || alpha == 1.0) {
+                        foldedConstantCount++;
+                        return module.getSourceModule(alpha == 0.0 ? 0 : 1);
+                    }
+                }
+            } else if (type == Add.class || type == Multiply.class) {
+                // v + c and v * c are the ScaleBias modules (1, c) and (c, 0).
+                Module source0 = module.getSourceModule(0);
+                Module source1 = module.getSourceModule(1);
+                Module variable = source0 instanceof Const ? source1 : source0;
+                Module constant = source0 instanceof Const ? source0 : source1;
+                if (constant instanceof Const) {
+                    double value = ((Const) constant).getValue();
+                    mergedModifierCount++;
+                    return type == Add.class ? scaleBias(variable, 1.0, value) : scaleBias(variable, value, 0.0);
+                }
+            } else if (type == Invert.class && module.getSourceModule(0).getClass() == ScaleBias.class) {
+                mergedModifierCount++;
+                return scaleBias(module.getSourceModule(0), -1.0, ((Invert) module).getMiddle());
+            } else if (type == Range.class && module.getSourceModule(0).getClass() == ScaleBias.class) {
+                // The same scale and bias Range computes from its bounds.
+                Range range = (Range) module;
+                double scale = (range.getNewUpperBound() - range.getNewLowerBound()) / (range.getCurrentUpperBound() - range.getCurrentLowerBound());
+                double bias = range.getNewLowerBound() - range.getCurrentLowerBound() * scale;
+                mergedModifierCount++;
+                return scaleBias(module.getSourceModule(0), scale, bias);
+            } else if (type == ScaleBias.class) {
+                ScaleBias scaleBias = (ScaleBias) module;
+                if (module.getSourceModule(0).getClass() == ScaleBias.class || (scaleBias.getScale() == 1.0 && scaleBias.getBias() == 0.0)) {
+                    return scaleBias(module.getSourceModule(0), scaleBias.getScale(), scaleBias.getBias());
+                }
+            } else if (type == ScalePoint.class) {
+                ScalePoint scalePoint = (ScalePoint) module;
+                if (module.getSourceModule(0).getClass() == ScalePoint.class || (scalePoint.getXScale() == 1.0 && scalePoint.getYScale() == 1.0 && scalePoint.getZScale() == 1.0)) {
+                    return scalePoint(module.getSourceModule(0), scalePoint.getXScale(), scalePoint.getYScale(), scalePoint.getZScale());
+                }
+            } else if (type == TranslatePoint.class) {
+                TranslatePoint translatePoint = (TranslatePoint) module;
+                if (module.getSourceModule(0).getClass() == TranslatePoint.class
+                        || (translatePoint.getXTranslation() == 0.0 && translatePoint.getYTranslation() == 0.0 && translatePoint.getZTranslation() == 0.0)) {
+                    return translatePoint(module.getSourceModule(0), translatePoint.getXTranslation(), translatePoint.getYTranslation(), translatePoint.getZTranslation());
+                }
+            } else if (type == RotatePoint.class) {
+                RotatePoint rotatePoint = (RotatePoint) module;
+                if (rotatePoint.getXAngle() == 0.0 && rotatePoint.getYAngle() == 0.0 && rotatePoint.getZAngle() == 0.0) {
+                    mergedModifierCount++;
+                    return module.getSourceModule(0);
+                }
+            } else if (type == Exponent.class) {
+                if (((Exponent) module).getExponent() == 1.0) {
+                    mergedModifierCount++;
+                    return module.getSourceModule(0);
+                }
+            }
+            return module;
+        }
+
+        // Returns the module computing source * scale + bias, merged with the
+        // source module when that is a ScaleBias too.
+        private Module scaleBias(Module source, double scale, double bias) {
+            if (source.getClass() == ScaleBias.class) {
+                ScaleBias inner = (ScaleBias) source;
+                mergedModifierCount++;
+                return scaleBias(inner.getSourceModule(0), inner.getScale() * scale, inner.getBias() * scale + bias);
+            }
+            if (scale == 1.0 && bias == 0.0) {
+                mergedModifierCount++;
+                return source;
+            }
+            ScaleBias module = new ScaleBias();
+            module.setScale(scale);
+            module.setBias(bias);
+            module.setSourceModule(0, source);
+            return canonicalize(module);
+        }
+
+        // Returns the module evaluating source at the scaled input value,
+        // merged with the source module when that is a ScalePoint too.
+        private Module scalePoint(Module source, double xScale, double yScale, double zScale) {
+            if (source.getClass() == ScalePoint.class) {
+                ScalePoint inner = (ScalePoint) source;
+                mergedModifierCount++;
+                return scalePoint(inner.getSourceModule(0), xScale * inner.getXScale(), yScale * inner.getYScale(), zScale * inner.getZScale());
+            }
+            if (xScale == 1.0 && yScale == 1.0 && zScale == 1.0) {
+                mergedModifierCount++;
+                return source;
+            }
+            ScalePoint module = new ScalePoint();
+            module.setXScale(xScale);
+            module.setYScale(yScale);
+            module.setZScale(zScale);
+            module.setSourceModule(0, source);
+            return canonicalize(module);
+        }
+
+        // Returns the module evaluating source at the translated input value,
+        // merged with the source module when that is a TranslatePoint too.
+        private Module translatePoint(Module source, double xTranslation, double yTranslation, double zTranslation) {
+            if (source.getClass() == TranslatePoint.class) {
+                TranslatePoint inner = (TranslatePoint) source;
+                mergedModifierCount++;
+                return translatePoint(inner.getSourceModule(0), xTranslation + inner.getXTranslation(), yTranslation + inner.getYTranslation(), zTranslation + inner.getZTranslation());
+            }
+            if (xTranslation == 0.0 && yTranslation == 0.0 && zTranslation == 0.0) {
+                mergedModifierCount++;
+                return source;
+            }
+            TranslatePoint module = new TranslatePoint();
+            module.setTranslations(xTranslation, yTranslation, zTranslation);
+            module.setSourceModule(0, source);
+            return canonicalize(module);
+        }
+
+        // Returns the source module a Select with a Const control module
+        // always returns, or null if it blends or has a varying control value.
+        private Module selectedSource(Select select) {
+            Module control = select.getControlModule();
+            if (!(control instanceof Const)) {
+                return null;
+            }
+            // Evaluate a copy of the Select with the sources replaced by two
+            // markers; any other result means the control value lies in an
+            // edge falloff band.
+            Select probe = (Select) copy(select);
+            probe.setSourceModule(0, constant(0.0));
+            probe.setSourceModule(1, constant(1.0));
+            probe.setControlModule(control);
+            double value = probe.getValue(0.0, 0.0, 0.0);
+            if (value == 0.0) {
+                return select.getSourceModule(0);
+            } else if (value == 1.0) {
+                return select.getSourceModule(1);
+            }
+            return null;
+        }
+
+        // Determines if the output value of a module does not depend on the
+        // input value.
+        private boolean isConstant(Module module) {
+            Class<?> type = module.getClass();
+            if (type == Const.class || !isRewritable(module)) {
+                return false;
+            }
+            if (type == ScalePoint.class || type == TranslatePoint.class || type == RotatePoint.class || type == Displace.class || type == Turbulence.class) {
+                // Only the coordinates change; the value comes from the first
+                // source module.
+                return module.getSourceModule(0) instanceof Const;
+            }
+            for (int i = 0; i < module.getSourceModuleCount(); i++) {
+                if (!(module.getSourceModule(i) instanceof Const)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Returns the one module of the graph equal to the given module.
+        private Module canonicalize(Module module) {
+            List<Object> key = key(module);
+            if (key == null) {
+                return module;
+            }
+            Module existing = canonical.get(key);
+            if (existing == null) {
+                canonical.put(key, module);
+                return module;
+            }
+            if (existing != module) {
+                mergedSubgraphCount++;
+            }
+            return existing;
+        }
+
+        Module cacheShared(Module root) {
+            Map<Module, Integer> parents = new IdentityHashMap<Module, Integer>();
+            countParents(root, parents, new IdentityHashMap<Module, Boolean>());
+            return withCaches(root, parents);
+        }
+
+        private void countParents(Module module, Map<Module, Integer> parents, Map<Module, Boolean> visited) {
+            if (visited.put(module, Boolean.TRUE) != null || !isRewritable(module)) {
+                return;
+            }
+            for (int i = 0; i < module.getSourceModuleCount(); i++) {
+                Module source = module.getSourceModule(i);
+                Integer count = parents.get(source);
+                parents.put(source, count == null ? 1 : count + 1);
+                countParents(source, parents, visited);
+            }
+        }
+
+        private Module withCaches(Module module, Map<Module, Integer> parents) {
+            Module result = cached.get(module);
+            if (result == null) {
+                result = module;
+                if (isRewritable(module)) {
+                    Module[] sources = new Module[module.getSourceModuleCount()];
+                    for (int i = 0; i < sources.length; i++) {
+                        Module source = withCaches(module.getSourceModule(i), parents);
+                        Integer count = parents.get(module.getSourceModule(i));
+                        sources[i] = count != null && count > 1 && needsCache(source) ? cacheOf(source) : source;
+                    }
+                    result = withSources(module, sources);
+                }
+                cached.put(module, result);
+            }
+            return result;
+        }
+
+        private boolean needsCache(Module module) {
+            return !(module instanceof Const || module instanceof Cache || module instanceof ThreadLocalCache);
+        }
+
+        private Module cacheOf(Module module) {
+            Module cache = caches.get(module);
+            if (cache == null) {
+                cache = concurrent ? new ThreadLocalCache() : new Cache();
+                cache.setSourceModule(0, module);
+                caches.put(module, cache);
+                insertedCacheCount++;
+            }
+            return cache;
+        }
+    }
+
+    // Returns the module itself if it already reads the given source modules,
+    // otherwise a copy of it that does.
+    private static Module withSources(Module module, Module[] sources) {
+        boolean same = true;
+        for (int i = 0; i < sources.length; i++) {
+            same &= module.getSourceModule(i) == sources[i];
+        }
+        if (same) {
+            return module;
+        }
+        Module copy = copy(module);
+        for (int i = 0; i < sources.length; i++) {
+            copy.setSourceModule(i, sources[i]);
+        }
+        return copy;
+    }
+
+    private static Const constant(double value) {
+        Const module = new Const();
+        module.setValue(value);
+        return module;
+    }
+
+    // Determines if the optimiser can look through and copy a module.
+    private static boolean isRewritable(Module module) {
+        return module.getSourceModuleCount() > 0 && copy(module) != null;
+    }
+
+    // Returns a module of the same class and with the same parameters as the
+    // given module but without source modules, or null if the optimiser does
+    // not know the class.
+    private static Module copy(Module module) {
+        Class<?> type = module.getClass();
+        if (type == Add.class) {
+            return new Add();
+        } else if (type == Multiply.class) {
+            return new Multiply();
+        } else if (type == Max.class) {
+            return new Max();
+        } else if (type == Min.class) {
+            return new Min();
+        } else if (type == Power.class) {
+            return new Power();
+        } else if (type == Blend.class) {
+            return new Blend();
+        } else if (type == Displace.class) {
+            return new Displace();
+        } else if (type == Abs.class) {
+            return new Abs();
+        } else if (type == Cache.class) {
+            return new Cache();
+        } else if (type == ThreadLocalCache.class) {
+            return new ThreadLocalCache(((ThreadLocalCache) module).getCapacity());
+        } else if (type == Select.class) {
+            Select select = (Select) module;
+            Select copy = new Select();
+            copy.setBounds(select.getUpperBound(), select.getLowerBound());
+            copy.setEdgeFalloff(select.getEdgeFalloff());
+            return copy;
+        } else if (type == Clamp.class) {
+            Clamp clamp = (Clamp) module;
+            Clamp copy = new Clamp();
+            copy.setLowerBound(clamp.getLowerBound());
+            copy.setUpperBound(clamp.getUpperBound());
+            return copy;
+        } else if (type == Curve.class) {
+            Curve copy = new Curve();
+            for (Curve.ControlPoint point : ((Curve) module).getControlPoints()) {
+                copy.addControlPoint(point.getInputValue(), point.getOutputValue());
+            }
+            return copy;
+        } else if (type == Exponent.class) {
+            Exponent copy = new Exponent();
+            copy.setExponent(((Exponent) module).getExponent());
+            return copy;
+        } else if (type == Invert.class) {
+            Invert copy = new Invert();
+            copy.setMiddle(((Invert) module).getMiddle());
+            return copy;
+        } else if (type == Range.class) {
+            Range range = (Range) module;
+            Range copy = new Range();
+            copy.setBounds(range.getCurrentLowerBound(), range.getCurrentUpperBound(), range.getNewLowerBound(), range.getNewUpperBound());
+            return copy;
+        } else if (type == RotatePoint.class) {
+            RotatePoint rotatePoint = (RotatePoint) module;
+            RotatePoint copy = new RotatePoint();
+            copy.setAngles(rotatePoint.getXAngle(), rotatePoint.getYAngle(), rotatePoint.getZAngle());
+            return copy;
+        } else if (type == ScaleBias.class) {
+            ScaleBias scaleBias = (ScaleBias) module;
+            ScaleBias copy = new ScaleBias();
+            copy.setScale(scaleBias.getScale());
+            copy.setBias(scaleBias.getBias());
+            return copy;
+        } else if (type == ScalePoint.class) {
+            ScalePoint scalePoint = (ScalePoint) module;
+            ScalePoint copy = new ScalePoint();
+            copy.setXScale(scalePoint.getXScale());
+            copy.setYScale(scalePoint.getYScale());
+            copy.setZScale(scalePoint.getZScale());
+            return copy;
+        } else if (type == Terrace.class) {
+            Terrace terrace = (Terrace) module;
+            Terrace copy = new Terrace();
+            double[] points = terrace.getControlPoints();
+            for (int i = 0; i < terrace.getControlPointCount(); i++) {
+                copy.addControlPoint(points[i]);
+            }
+            copy.setInvertTerraces(terrace.isInvertTerraces());
+            return copy;
+        } else if (type == TranslatePoint.class) {
+            TranslatePoint translatePoint = (TranslatePoint) module;
+            TranslatePoint copy = new TranslatePoint();
+            copy.setTranslations(translatePoint.getXTranslation(), translatePoint.getYTranslation(), translatePoint.getZTranslation());
+            return copy;
+        } else if (type == Turbulence.class) {
+            Turbulence turbulence = (Turbulence) module;
+            Turbulence copy = new Turbulence();
+            copy.setPower(turbulence.getPower());
+            copy.setPlanar(turbulence.isPlanar());
+            copy.setSeed(turbulence.getSeed());
+            copy.setFrequency(turbulence.getFrequency());
+            copy.setRoughness(turbulence.getRoughnessCount());
+            return copy;
+        }
+        return null;
+    }
+
+    // Returns a key that is equal for two modules exactly when they produce
+    // the same output values: the class, the parameters and the source
+    // modules.  Returns null for modules that are only equal to themselves.
+    private static List<Object> key(Module module) {
+        Class<?> type = module.getClass();
+        List<Object> key = new ArrayList<Object>();
+        key.add(type);
+        if (type == Const.class) {
+            key.add(((Const) module).getValue());
+        } else if (type == Perlin.class) {
+            addPerlin(key, (Perlin) module);
+        } else if (type == Billow.class) {
+            Billow billow = (Billow) module;
+            key.addAll(Arrays.<Object>asList(billow.getFrequency(), billow.getLacunarity(), billow.getQuality(), billow.getOctaveCount(), billow.getPersistence(), billow.getSeed(),
+                    billow.getLodFootprint()));
+        } else if (type == RidgedMulti.class) {
+            RidgedMulti ridgedMulti = (RidgedMulti) module;
+            key.addAll(Arrays.<Object>asList(ridgedMulti.getFrequency(), ridgedMulti.getLacunarity(), ridgedMulti.getNoiseQuality(), ridgedMulti.getOctaveCount(), ridgedMulti.getSeed(),
+                    ridgedMulti.getLodFootprint()));
+        } else if (type == Voronoi.class) {
+            Voronoi voronoi = (Voronoi) module;
+            key.addAll(Arrays.<Object>asList(voronoi.getDisplacement(), voronoi.isEnableDistance(), voronoi.getFrequency(), voronoi.getSeed()));
+        } else if (type == Spheres.class) {
+            key.add(((Spheres) module).getFrequency());
+        } else if (type == Cylinders.class) {
+            key.add(((Cylinders) module).getFrequency());
+        } else if (type == Checkerboard.class) {
+            // No parameters.
+        } else if (isRewritable(module)) {
+            addParameters(key, module);
+            for (int i = 0; i < module.getSourceModuleCount(); i++) {
+                key.add(new Identity(module.getSourceModule(i)));
+            }
+        } else {
+            return null;
+        }
+        return key;
+    }
+
+    private static void addParameters(List<Object> key, Module module) {
+        if (module instanceof ThreadLocalCache) {
+            key.add(((ThreadLocalCache) module).getCapacity());
+        } else if (module instanceof Select) {
+            Select select = (Select) module;
+            key.addAll(Arrays.<Object>asList(select.getLowerBound(), select.getUpperBound(), select.getEdgeFalloff()));
+        } else if (module instanceof Clamp) {
+            Clamp clamp = (Clamp) module;
+            key.addAll(Arrays.<Object>asList(clamp.getLowerBound(), clamp.getUpperBound()));
+        } else if (module instanceof Curve) {
+            for (Curve.ControlPoint point : ((Curve) module).getControlPoints()) {
+                key.add(point.getInputValue());
+                key.add(point.getOutputValue());
+            }
+        } else if (module instanceof Exponent) {
+            key.add(((Exponent) module).getExponent());
+        } else if (module instanceof Invert) {
+            key.add(((Invert) module).getMiddle());
+        } else if (module instanceof Range) {
+            Range range = (Range) module;
+            key.addAll(Arrays.<Object>asList(range.getCurrentLowerBound(), range.getCurrentUpperBound(), range.getNewLowerBound(), range.getNewUpperBound()));
+        } else if (module instanceof RotatePoint) {
+            RotatePoint rotatePoint = (RotatePoint) module;
+            key.addAll(Arrays.<Object>asList(rotatePoint.getXAngle(), rotatePoint.getYAngle(), rotatePoint.getZAngle()));
+        } else if (module instanceof ScaleBias) {
+            ScaleBias scaleBias = (ScaleBias) module;
+            key.addAll(Arrays.<Object>asList(scaleBias.getScale(), scaleBias.getBias()));
+        } else if (module instanceof ScalePoint) {
+            ScalePoint scalePoint = (ScalePoint) module;
+            key.addAll(Arrays.<Object>asList(scalePoint.getXScale(), scalePoint.getYScale(), scalePoint.getZScale()));
+        } else if (module instanceof Terrace) {
+            Terrace terrace = (Terrace) module;
+            key.add(terrace.isInvertTerraces());
+            key.add(Arrays.toString(Arrays.copyOf(terrace.getControlPoints(), terrace.getControlPointCount())));
+        } else if (module instanceof TranslatePoint) {
+            TranslatePoint translatePoint = (TranslatePoint) module;
+            key.addAll(Arrays.<Object>asList(translatePoint.getXTranslation(), translatePoint.getYTranslation(), translatePoint.getZTranslation()));
+        } else if (module instanceof Turbulence) {
+            Turbulence turbulence = (Turbulence) module;
+            key.add(turbulence.getPower());
+            key.addAll(Arrays.<Object>asList(turbulence.isPlanar(), turbulence.getSeed(), turbulence.getFrequency(), turbulence.getRoughnessCount()));
+        }
+    }
+
+    private static void addPerlin(List<Object> key, Perlin perlin) {
+        key.addAll(Arrays.<Object>asList(perlin.getFrequency(), perlin.getLacunarity(), perlin.getNoiseQuality(), perlin.getOctaveCount(), perlin.getPersistence(), perlin.getSeed(),
+                perlin.getLodFootprint()));
+    }
+
+    // Compares a module by identity inside a key.
+    private static final class Identity {
+        private final Module module;
+
+        Identity(Module module) {
+            this.module = module;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity && ((Identity) o).module == module;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(module);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.model;
+
+import java.util.Arrays;
+
+import spongepowered.noise.exception.NoModuleException;
+import spongepowered.noise.module.Module;
+
+/**
+ * Model that defines the displacement along a path of connected line segments.
+ * <p/>
+ * This model is the multi-segment form of {@link Line}.  Instead of returning one output value per call, it walks the whole path at a fixed arc-length step and writes the output values into an
+ * array, evaluating the noise module through its bulk path.  This is useful for carving roads and rivers in a single pass.
+ * <p/>
+ * Within a segment the input values are interpolated exactly as Line interpolates them, so a path of one segment sampled at distance @a s returns the value Line.getValue(s / length) returns.  If
+ * attenuation is enabled, the output values are moved toward 0.0 as either end of the whole path is approached.
+ * <p/>
+ * After the arrays have grown to the size of the path, adding points and sampling do not allocate.  An instance must not be used by several threads at once.
+ */
+public class Polyline {
+    // Number of input values passed to the noise module at once.
+    private static final int BLOCK_SIZE = 256;
+    // A flag that specifies whether the value is to be attenuated
+    // (moved toward 0.0) as the ends of the path are approached.
+    private boolean attenuate = false;
+    // The noise module used to generate the output values.
+    private Module module;
+    // Coordinates of the points of the path, three per point.
+    private double[] points = new double[3 * 8];
+    // Distance along the path of every point.
+    private double[] distances = new double[8];
+    // Number of points of the path.
+    private int pointCount = 0;
+    // Input values of the current block, when the caller does not need them.
+    private final double[] xBlock = new double[BLOCK_SIZE];
+    private final double[] yBlock = new double[BLOCK_SIZE];
+    private final double[] zBlock = new double[BLOCK_SIZE];
+    private final double[] valueBlock = new double[BLOCK_SIZE];
+
+    /**
+     * @param module The noise module that is used to generate the output values.
+     */
+    public Polyline(Module module) {
+        if (module == null) {
+            throw new IllegalArgumentException("module cannot be null");
+        }
+        this.module = module;
+    }
+
+    /**
+     * Returns the noise module that is used to generate the output values.
+     */
+    public Module getModule() {
+        return module;
+    }
+
+    /**
+     * Sets the noise module that is used to generate the output values.
+     *
+     * @param module The noise module that is used to generate the output values.
+     */
+    public void setModule(Module module) {
+        if (module == null) {
+            throw new IllegalArgumentException("module cannot be null");
+        }
+        this.module = module;
+    }
+
+    /**
+     * Returns a flag indicating whether the output value is to be attenuated (moved toward 0.0) as the ends of the path are approached.
+     */
+    public boolean attenuate() {
+        return attenuate;
+    }
+
+    /**
+     * Sets a flag indicating that the output value is to be attenuated (moved toward 0.0) as the ends of the path are approached.
+     *
+     * @param att A flag that specifies whether the output value is to be attenuated.
+     */
+    public void setAttenuate(boolean att) {
+        this.attenuate = att;
+    }
+
+    /**
+     * Appends a point to the end of the path.
+     *
+     * @param x x coordinate of the point.
+     * @param y y coordinate of the point.
+     * @param z z coordinate of the point.
+     */
+    public void addPoint(double x, double y, double z) {
+        if (pointCount == distances.length) {
+            points = Arrays.copyOf(points, 6 * pointCount);
+            distances = Arrays.copyOf(distances, 2 * pointCount);
+        }
+        int i = 3 * pointCount;
+        points[i] = x;
+        points[i + 1] = y;
+        points[i + 2] = z;
+        if (pointCount == 0) {
+            distances[0] = 0.0;
+        } else {
+            double dx = x - points[i - 3];
+            double dy = y - points[i - 2];
+            double dz = z - points[i - 1];
+            distances[pointCount] = distances[pointCount - 1] + Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        pointCount++;
+    }
+
+    /**
+     * Removes every point of the path.
+     */
+    public void clearPoints() {
+        pointCount = 0;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Returns the length of the path, the sum of the lengths of its segments.
+     */
+    public double getLength() {
+        return pointCount == 0 ? 0.0 : distances[pointCount - 1];
+    }
+
+    /**
+     * Returns the number of output values {@link #sample(double, double[])} writes for the given step: one at every multiple of @a step up to the length of the path.
+     *
+     * @param step The distance between two input values along the path.
+     */
+    public int getSampleCount(double step) {
+        if (!(step > 0.0)) {
+            throw new IllegalArgumentException("step must be positive");
+        }
+        if (pointCount == 0) {
+            return 0;
+        }
+        return (int) Math.floor(getLength() / step) + 1;
+    }
+
+    /**
+     * Generates the output values at every multiple of @a step along the path, starting at its first point.
+     *
+     * @param step The distance between two input values along the path.
+     * @param values Receives the output values; must hold at least getSampleCount(step) elements.
+     * @return The number of output values written.
+     */
+    public int sample(double step, double[] values) {
+        int count = getSampleCount(step);
+        checkLength(values, count);
+        int segment = 0;
+        for (int start = 0; start < count; start += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, count - start);
+            segment = walk(step, start, n, segment, xBlock, yBlock, zBlock);
+            evaluate(step, start, n, xBlock, yBlock, zBlock, valueBlock);
+            System.arraycopy(valueBlock, 0, values, start, n);
+        }
+        return count;
+    }
+
+    /**
+     * Generates the output values at every multiple of @a step along the path, starting at its first point, together with the input values they were generated at.
+     *
+     * @param step The distance between two input values along the path.
+     * @param values Receives the output values; must hold at least getSampleCount(step) elements.
+     * @param x Receives the @a x coordinates of the input values.
+     * @param y Receives the @a y coordinates of the input values.
+     * @param z Receives the @a z coordinates of the input values.
+     * @return The number of output values written.
+     */
+    public int sample(double step, double[] values, double[] x, double[] y, double[] z) {
+        int count = getSampleCount(step);
+        checkLength(values, count);
+        checkLength(x, count);
+        checkLength(y, count);
+        checkLength(z, count);
+        walk(step, 0, count, 0, x, y, z);
+        evaluate(step, 0, count, x, y, z, values);
+        return count;
+    }
+
+    private static void checkLength(double[] array, int count) {
+        if (array.length < count) {
+            throw new IllegalArgumentException("array must hold at least " + count + " elements");
+        }
+    }
+
+    // Computes the input values of samples first .. first + n - 1, starting
+    // the search for their segment at the given segment.  Returns the segment
+    // of the last sample.
+    private int walk(double step, int first, int n, int segment, double[] x, double[] y, double[] z) {
+        double length = getLength();
+        for (int k = 0; k < n; k++) {
+            double s = Math.min((first + k) * step, length);
+            // Advance to the segment containing s; zero-length segments are
+            // skipped.
+            while (segment < pointCount - 2 && s > distances[segment + 1]) {
+                segment++;
+            }
+            int i = 3 * segment;
+            double x0 = points[i];
+            double y0 = points[i + 1];
+            double z0 = points[i + 2];
+            if (pointCount == 1 || distances[segment + 1] == distances[segment]) {
+                x[k] = x0;
+                y[k] = y0;
+                z[k] = z0;
+            } else {
+                double p = (s - distances[segment]) / (distances[segment + 1] - distances[segment]);
+                x[k] = (points[i + 3] - x0) * p + x0;
+                y[k] = (points[i + 4] - y0) * p + y0;
+                z[k] = (points[i + 5] - z0) * p + z0;
+            }
+        }
+        return segment;
+    }
+
+    // Evaluates the module at the input values of samples first .. first + n - 1
+    // and applies the attenuation.
+    private void evaluate(double step, int first, int n, double[] x, double[] y, double[] z, double[] values) {
+        if (module == null) {
+            throw new NoModuleException();
+        }
+        module.getValues(values, x, y, z, n);
+        double length = getLength();
+        if (attenuate && length > 0.0) {
+            for (int k = 0; k < n; k++) {
+                double p = Math.min((first + k) * step, length) / length;
+                values[k] = p * (1.0 - p) * 4 * values[k];
+            }
+        }
+    }
+}
@@ -74,4 +74,14 @@ public class Cache extends Module {
         isCached = true;
         return cachedValue;
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        // The one cached value could only ever match the first point of a
+        // batch, so the whole batch goes to the source module.
+        sourceModule[0].getValues(out, x, y, z, count);
+    }
 }
@@ -69,4 +69,108 @@ public abstract class Module {
     public abstract int getSourceModuleCount();
 
     public abstract double getValue(double x, double y, double z);
+
+    /**
+     * Generates output values for a list of input values.
+     *
+     * @param out The array that receives the output values; must not be one of the coordinate arrays.
+     * @param x The @a x coordinates of the input values.
+     * @param y The @a y coordinates of the input values.
+     * @param z The @a z coordinates of the input values.
+     * @param count The number of input values.
+     * <p/>
+     * Element @a i of @a out is set to exactly the value getValue(x[i], y[i], z[i]) returns.  The default implementation calls getValue() once per input value; modules override it to evaluate
+     * the whole list in one pass.
+     */
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        checkBulkArguments(out, x, y, z, count);
+        for (int i = 0; i < count; i++) {
+            out[i] = getValue(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * Generates output values for a regular three-dimensional grid of input values.
+     *
+     * @param out The array that receives the output values.
+     * @param x The @a x coordinate of the grid origin.
+     * @param y The @a y coordinate of the grid origin.
+     * @param z The @a z coordinate of the grid origin.
+     * @param xStep The distance between neighbouring input values along the @a x axis.
+     * @param yStep The distance between neighbouring input values along the @a y axis.
+     * @param zStep The distance between neighbouring input values along the @a z axis.
+     * @param xSize The number of input values along the @a x axis.
+     * @param ySize The number of input values along the @a y axis.
+     * @param zSize The number of input values along the @a z axis.
+     * <p/>
+     * The output value for the input value ( x + i * xStep, y + j * yStep, z + k * zStep ) is stored at index (k * ySize + j) * xSize + i.
+     */
+    public void getValues(double[] out, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize, int zSize) {
+        int count = gridCount(out.length, xSize, ySize, zSize);
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] zs = new double[count];
+        int index = 0;
+        for (int k = 0; k < zSize; k++) {
+            double zCur = z + k * zStep;
+            for (int j = 0; j < ySize; j++) {
+                double yCur = y + j * yStep;
+                for (int i = 0; i < xSize; i++) {
+                    xs[index] = x + i * xStep;
+                    ys[index] = yCur;
+                    zs[index] = zCur;
+                    index++;
+                }
+            }
+        }
+        getValues(out, xs, ys, zs, count);
+    }
+
+    /**
+     * Generates output values for a regular two-dimensional grid of input values on the plane at @a z.
+     * <p/>
+     * The output value for the input value ( x + i * xStep, y + j * yStep, z ) is stored at index j * xSize + i.
+     */
+    public void getValues(double[] out, double x, double y, double z, double xStep, double yStep, int xSize, int ySize) {
+        getValues(out, x, y, z, xStep, yStep, 0.0, xSize, ySize, 1);
+    }
+
+    /**
+     * Single-precision variant of {@link #getValues(double[], double, double, double, double, double, double, int, int, int)}.
+     */
+    public void getValues(float[] out, double x, double y, double z, double xStep, double yStep, double zStep, int xSize, int ySize, int zSize) {
+        int count = gridCount(out.length, xSize, ySize, zSize);
+        double[] values = new double[count];
+        getValues(values, x, y, z, xStep, yStep, zStep, xSize, ySize, zSize);
+        for (int i = 0; i < count; i++) {
+            out[i] = (float) values[i];
+        }
+    }
+
+    /**
+     * Single-precision variant of {@link #getValues(double[], double, double, double, double, double, int, int)}.
+     */
+    public void getValues(float[] out, double x, double y, double z, double xStep, double yStep, int xSize, int ySize) {
+        getValues(out, x, y, z, xStep, yStep, 0.0, xSize, ySize, 1);
+    }
+
+    protected static void checkBulkArguments(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (out.length < count || x.length < count || y.length < count || z.length < count) {
+            throw new IllegalArgumentException("arrays must hold at least count values");
+        }
+    }
+
+    private static int gridCount(int capacity, int xSize, int ySize, int zSize) {
+        if (xSize < 0 || ySize < 0 || zSize < 0) {
+            throw new IllegalArgumentException("grid dimensions must not be negative");
+        }
+        long count = (long) xSize * ySize * zSize;
+        if (count > capacity) {
+            throw new IllegalArgumentException("output array must hold xSize * ySize * zSize values");
+        }
+        return (int) count;
+    }
 }
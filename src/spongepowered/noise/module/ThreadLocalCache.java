@@ -0,0 +1,154 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.module;
+
+import spongepowered.noise.exception.NoModuleException;
+
+/**
+ * Noise module that caches the most recent output values generated by a source module, separately for every thread.
+ * <p/>
+ * Unlike Cache, this noise module may be shared by several threads that generate values at the same time.  Every
+ * thread keeps its own small ring of the last input values it requested together with their output values, so the
+ * threads never see each other's values and interleaved callers do not evict each other.
+ * <p/>
+ * A ring of several entries also keeps the hit rate high when a subgraph is used by more than one parent module and the
+ * parents request other input values in between.
+ * <p/>
+ * This noise module requires one source module.
+ */
+public class ThreadLocalCache extends Module {
+    // Default number of input values cached per thread.
+    public static final int DEFAULT_CAPACITY = 4;
+    // Number of input values cached per thread.
+    private final int capacity;
+    // The cached values of every thread.
+    private final ThreadLocal<Entries> entries;
+    // Incremented whenever the source module is replaced so that every
+    // thread discards its cached values on its next call.
+    private volatile int generation;
+
+    public ThreadLocalCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ThreadLocalCache(int capacity) {
+        super(1);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.entries = ThreadLocal.withInitial(() -> new Entries(this.capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getSourceModuleCount() {
+        return 1;
+    }
+
+    @Override
+    public void setSourceModule(int index, Module sourceModule) {
+        super.setSourceModule(index, sourceModule);
+        generation++;
+    }
+
+    @Override
+    public double getValue(double x, double y, double z) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+
+        Entries cache = entries.get();
+        int currentGeneration = generation;
+        if (cache.generation != currentGeneration) {
+            cache.size = 0;
+            cache.generation = currentGeneration;
+        }
+
+        // Search from the most recently stored value backwards.
+        int index = cache.head;
+        for (int i = 0; i < cache.size; i++) {
+            if (cache.x[index] == x && cache.y[index] == y && cache.z[index] == z) {
+                return cache.value[index];
+            }
+            if (--index < 0) {
+                index = capacity - 1;
+            }
+        }
+
+        double value = sourceModule[0].getValue(x, y, z);
+        if (++cache.head == capacity) {
+            cache.head = 0;
+        }
+        cache.x[cache.head] = x;
+        cache.y[cache.head] = y;
+        cache.z[cache.head] = z;
+        cache.value[cache.head] = value;
+        if (cache.size < capacity) {
+            cache.size++;
+        }
+        return value;
+    }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        // A batch of distinct points would only push this thread's recent
+        // values out of the ring, so it goes to the source module and the
+        // ring is left as it is.
+        sourceModule[0].getValues(out, x, y, z, count);
+    }
+
+    // The cached values of a single thread, stored as a ring.
+    private static final class Entries {
+        final double[] x;
+        final double[] y;
+        final double[] z;
+        final double[] value;
+        // Index of the most recently stored value.
+        int head = -1;
+        // Number of stored values.
+        int size;
+        // Generation of the source module the values belong to.
+        int generation;
+
+        Entries(int capacity) {
+            x = new double[capacity];
+            y = new double[capacity];
+            z = new double[capacity];
+            value = new double[capacity];
+        }
+    }
+}
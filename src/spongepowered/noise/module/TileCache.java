@@ -0,0 +1,238 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.module;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import spongepowered.noise.exception.NoModuleException;
+
+/**
+ * Noise module that caches the output values of a source module in square tiles of a two-dimensional lattice.
+ * <p/>
+ * The lattice lies in the plane @a z = getZ(), and its points have the coordinates (@a i / resolution, @a j / resolution) for integer @a i and @a j, which matches generators that sample a grid with
+ * code like {@code getValue(col / resolution, row / resolution, 0)}.  When a lattice point is requested and its tile is not cached yet, the values of the whole tile are generated at once with
+ * the bulk path of the source module, so neighbouring requests are answered from memory.  Input values that are not lattice points are passed to the source module.
+ * <p/>
+ * Tiles are evicted in least-recently-used order once the memory budget is used up.  The values are exactly the values the source module generates for the same input values.
+ * <p/>
+ * This noise module may be shared by several threads, but setZ() and setSourceModule() must not be called while other threads generate values.  The cache should be cleared with clear() after
+ * the source module is changed, since it can not see changes made to the source module itself.
+ * <p/>
+ * This noise module requires one source module.
+ */
+public class TileCache extends Module {
+    // Number of lattice points per side of a tile.
+    public static final int TILE_SIZE = 32;
+    // Default resolution of the lattice.
+    public static final double DEFAULT_RESOLUTION = 1.0;
+    // Default memory budget, in bytes.
+    public static final long DEFAULT_MEMORY_BUDGET = 4L * 1024 * 1024;
+    // Size of the values of one tile, in bytes.
+    private static final long TILE_BYTES = (long) TILE_SIZE * TILE_SIZE * 8;
+    // Lattice coordinates beyond this magnitude are not cached.
+    private static final double LATTICE_LIMIT = 1073741824.0;
+    // Number of lattice points per unit.
+    private final double resolution;
+    // Maximum number of cached tiles.
+    private final int maxTiles;
+    // @a z coordinate of the lattice.
+    private volatile double z = 0.0;
+    // Cached tiles by tile coordinates, in access order.  Guarded by itself.
+    private final LinkedHashMap<Long, double[]> tiles;
+    // The most recently used tile, checked before the map without locking.
+    private volatile Tile lastTile;
+    // Number of requests answered from the cache.
+    private final LongAdder hitCount = new LongAdder();
+    // Number of requests passed to the source module.
+    private final LongAdder missCount = new LongAdder();
+
+    public TileCache() {
+        this(DEFAULT_RESOLUTION, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param resolution The number of lattice points per unit; must be positive.
+     * @param memoryBudget The maximum number of bytes the cached values may take; must be enough for at least one tile.
+     */
+    public TileCache(double resolution, long memoryBudget) {
+        super(1);
+        if (!(resolution > 0.0) || Double.isInfinite(resolution)) {
+            throw new IllegalArgumentException("resolution must be positive");
+        }
+        if (memoryBudget < TILE_BYTES) {
+            throw new IllegalArgumentException("memoryBudget must be at least " + TILE_BYTES + " bytes");
+        }
+        this.resolution = resolution;
+        this.maxTiles = (int) Math.min(Integer.MAX_VALUE, memoryBudget / TILE_BYTES);
+        this.tiles = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+                return size() > maxTiles;
+            }
+        };
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    public int getMaxTileCount() {
+        return maxTiles;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public void setZ(double z) {
+        this.z = z;
+        clear();
+    }
+
+    public int getTileCount() {
+        synchronized (tiles) {
+            return tiles.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public void resetCounters() {
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    /**
+     * Discards all cached tiles.
+     */
+    public void clear() {
+        synchronized (tiles) {
+            tiles.clear();
+            lastTile = null;
+        }
+    }
+
+    @Override
+    public int getSourceModuleCount() {
+        return 1;
+    }
+
+    @Override
+    public void setSourceModule(int index, Module sourceModule) {
+        super.setSourceModule(index, sourceModule);
+        clear();
+    }
+
+    @Override
+    public double getValue(double x, double y, double z) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+
+        double planeZ = this.z;
+        double xl = Math.rint(x * resolution);
+        double yl = Math.rint(y * resolution);
+        if (z != planeZ || !(Math.abs(xl) < LATTICE_LIMIT && Math.abs(yl) < LATTICE_LIMIT) || xl / resolution != x || yl / resolution != y) {
+            missCount.increment();
+            return sourceModule[0].getValue(x, y, z);
+        }
+
+        int i = (int) xl;
+        int j = (int) yl;
+        int tileX = Math.floorDiv(i, TILE_SIZE);
+        int tileY = Math.floorDiv(j, TILE_SIZE);
+        int index = (j - tileY * TILE_SIZE) * TILE_SIZE + (i - tileX * TILE_SIZE);
+        long key = ((long) tileX << 32) | (tileY & 0xffffffffL);
+
+        Tile last = lastTile;
+        if (last != null && last.key == key) {
+            hitCount.increment();
+            return last.values[index];
+        }
+
+        double[] values;
+        synchronized (tiles) {
+            values = tiles.get(key);
+        }
+        if (values != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            // Generate the tile outside of the lock; if two threads generate
+            // the same tile at once, both get the same values.
+            values = generateTile(tileX, tileY, planeZ);
+            synchronized (tiles) {
+                tiles.put(key, values);
+            }
+        }
+        lastTile = new Tile(key, values);
+        return values[index];
+    }
+
+    private double[] generateTile(int tileX, int tileY, double planeZ) {
+        int count = TILE_SIZE * TILE_SIZE;
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] zs = new double[count];
+        for (int j = 0; j < TILE_SIZE; j++) {
+            for (int i = 0; i < TILE_SIZE; i++) {
+                int index = j * TILE_SIZE + i;
+                // The same expression getValue() checks the input value with.
+                xs[index] = (double) (tileX * TILE_SIZE + i) / resolution;
+                ys[index] = (double) (tileY * TILE_SIZE + j) / resolution;
+                zs[index] = planeZ;
+            }
+        }
+        double[] tile = new double[count];
+        sourceModule[0].getValues(tile, xs, ys, zs, count);
+        return tile;
+    }
+
+    // A tile together with its coordinates, published as one reference.
+    private static final class Tile {
+        final long key;
+        final double[] values;
+
+        Tile(long key, double[] values) {
+            this.key = key;
+            this.values = values;
+        }
+    }
+}
@@ -52,4 +52,21 @@ public class Add extends Module {
         }
         return sourceModule[0].getValue(x, y, z) + sourceModule[1].getValue(x, y, z);
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[1] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+        double[] values = new double[count];
+        sourceModule[0].getValues(out, x, y, z, count);
+        sourceModule[1].getValues(values, x, y, z, count);
+        for (int i = 0; i < count; i++) {
+            out[i] += values[i];
+        }
+    }
 }
@@ -34,6 +34,9 @@ import spongepowered.noise.exception.NoModuleException;
 import spongepowered.noise.module.Module;
 
 public class Blend extends Module {
+    // Scratch space of getValues(), one per thread.
+    private final ThreadLocal<LaneBuffer> buffers = ThreadLocal.withInitial(LaneBuffer::new);
+
     public Blend() {
         super(3);
     }
@@ -74,4 +77,51 @@ public class Blend extends Module {
         double alpha = sourceModule[2].getValue(x, y, z);
         return Utils.linearInterp(v0, v1, alpha);
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[1] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[2] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+
+        // Evaluate the control module for the whole block first, then each
+        // source module only for the input values that need it: a control
+        // value of exactly 0.0 or 1.0 takes a single source module.
+        LaneBuffer buffer = buffers.get();
+        buffer.ensureCapacity(count);
+        double[] alpha = buffer.control;
+        int[] lanes = buffer.lanes;
+        double[] values = buffer.values;
+        sourceModule[2].getValues(alpha, x, y, z, count);
+
+        int laneCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (alpha[i] != 1.0) {
+                lanes[laneCount++] = i;
+            }
+        }
+        buffer.getValues(sourceModule[0], laneCount, x, y, z, count);
+        for (int k = 0; k < laneCount; k++) {
+            out[lanes[k]] = values[k];
+        }
+
+        laneCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (alpha[i] != 0.0) {
+                lanes[laneCount++] = i;
+            }
+        }
+        buffer.getValues(sourceModule[1], laneCount, x, y, z, count);
+        for (int k = 0; k < laneCount; k++) {
+            int i = lanes[k];
+            out[i] = alpha[i] == 1.0 ? values[k] : Utils.linearInterp(out[i], values[k], alpha[i]);
+        }
+    }
 }
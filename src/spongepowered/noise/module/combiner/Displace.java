@@ -115,4 +115,38 @@ public class Displace extends Module {
         // the original input value.
         return sourceModule[0].getValue(xDisplace, yDisplace, zDisplace);
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[1] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[2] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[3] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+
+        // Get the output values from the three displacement modules and add
+        // each value to the corresponding coordinate of the input values.
+        double[] xDisplace = new double[count];
+        double[] yDisplace = new double[count];
+        double[] zDisplace = new double[count];
+        sourceModule[1].getValues(xDisplace, x, y, z, count);
+        sourceModule[2].getValues(yDisplace, x, y, z, count);
+        sourceModule[3].getValues(zDisplace, x, y, z, count);
+        for (int i = 0; i < count; i++) {
+            xDisplace[i] = x[i] + xDisplace[i];
+            yDisplace[i] = y[i] + yDisplace[i];
+            zDisplace[i] = z[i] + zDisplace[i];
+        }
+
+        // Retrieve the output values at the offset input values.
+        sourceModule[0].getValues(out, xDisplace, yDisplace, zDisplace, count);
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.module.combiner;
+
+import spongepowered.noise.module.Module;
+
+/**
+ * Scratch space for evaluating a source module on a subset of the input values of a bulk call.
+ * <p/>
+ * The subset is given as a list of lanes, the indices of the input values to evaluate.  The coordinates of those input values are gathered into the buffer so the source module can use its own bulk
+ * path on them.  The arrays only grow, so a buffer kept by a module is reused across calls; it must not be shared between threads.
+ */
+final class LaneBuffer {
+    // Output values of the control module.
+    double[] control = new double[0];
+    // Indices of the input values to evaluate.
+    int[] lanes = new int[0];
+    // Output values of the source module, one per lane.
+    double[] values = new double[0];
+    // Gathered @a x coordinates.
+    private double[] x = new double[0];
+    // Gathered @a y coordinates.
+    private double[] y = new double[0];
+    // Gathered @a z coordinates.
+    private double[] z = new double[0];
+
+    /**
+     * Makes room for a bulk call of the given number of input values.  The contents of the arrays are not kept when they grow.
+     */
+    void ensureCapacity(int count) {
+        if (control.length >= count) {
+            return;
+        }
+        control = new double[count];
+        lanes = new int[count];
+        values = new double[count];
+        x = new double[count];
+        y = new double[count];
+        z = new double[count];
+    }
+
+    /**
+     * Evaluates a module for the listed lanes of a bulk call.
+     * <p/>
+     * values[k] receives the output value of the module for the input value lanes[k], for the first laneCount entries of lanes.  When every lane of the call is listed the coordinate arrays are passed to the module as they are.
+     */
+    void getValues(Module module, int laneCount, double[] x, double[] y, double[] z, int count) {
+        if (laneCount == 0) {
+            return;
+        }
+        if (laneCount == count) {
+            module.getValues(values, x, y, z, count);
+            return;
+        }
+        for (int k = 0; k < laneCount; k++) {
+            int i = lanes[k];
+            this.x[k] = x[i];
+            this.y[k] = y[i];
+            this.z[k] = z[i];
+        }
+        module.getValues(values, this.x, this.y, this.z, laneCount);
+    }
+}
@@ -42,12 +42,24 @@ public class Select extends Module {
     // Default upper bound of the selection range for the
     // noise::module::Select noise module.
     public static final double DEFAULT_SELECT_UPPER_BOUND = 1.0;
+    // Band of a control value below or above the selection range and its
+    // edge falloff curves; the output value is that of the first source module.
+    private static final int BAND_SOURCE0 = 0;
+    // Band of a control value within the lower edge falloff curve.
+    private static final int BAND_LOWER_EDGE = 1;
+    // Band of a control value within the selection range; the output value is
+    // that of the second source module.
+    private static final int BAND_SOURCE1 = 2;
+    // Band of a control value within the upper edge falloff curve.
+    private static final int BAND_UPPER_EDGE = 3;
     // Edge-falloff value.
     private double edgeFalloff = DEFAULT_SELECT_EDGE_FALLOFF;
     // Lower bound of the selection range.
     private double lowerBound = DEFAULT_SELECT_LOWER_BOUND;
     // Upper bound of the selection range.
     private double upperBound = DEFAULT_SELECT_UPPER_BOUND;
+    // Scratch space of getValues(), one per thread.
+    private final ThreadLocal<LaneBuffer> buffers = ThreadLocal.withInitial(LaneBuffer::new);
 
     public Select() {
         super(3);
@@ -152,4 +164,99 @@ public class Select extends Module {
             }
         }
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[1] == null) {
+            throw new NoModuleException();
+        }
+        if (sourceModule[2] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+
+        // Evaluate the control module for the whole block first, then each
+        // source module only for the input values whose control value needs
+        // it.  Input values in an edge falloff band need both sources.
+        LaneBuffer buffer = buffers.get();
+        buffer.ensureCapacity(count);
+        double[] control = buffer.control;
+        int[] lanes = buffer.lanes;
+        double[] values = buffer.values;
+        sourceModule[2].getValues(control, x, y, z, count);
+
+        int laneCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (band(control[i], lowerBound, upperBound, edgeFalloff) != BAND_SOURCE1) {
+                lanes[laneCount++] = i;
+            }
+        }
+        buffer.getValues(sourceModule[0], laneCount, x, y, z, count);
+        for (int k = 0; k < laneCount; k++) {
+            out[lanes[k]] = values[k];
+        }
+
+        laneCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (band(control[i], lowerBound, upperBound, edgeFalloff) != BAND_SOURCE0) {
+                lanes[laneCount++] = i;
+            }
+        }
+        buffer.getValues(sourceModule[1], laneCount, x, y, z, count);
+        for (int k = 0; k < laneCount; k++) {
+            int i = lanes[k];
+            out[i] = select(control[i], out[i], values[k], lowerBound, upperBound, edgeFalloff);
+        }
+    }
+
+    // Determines the band of the selection range a control value falls in,
+    // using the comparisons of getValue().
+    private static int band(double controlValue, double lowerBound, double upperBound, double edgeFalloff) {
+        if (edgeFalloff > 0.0) {
+            if (controlValue < (lowerBound - edgeFalloff)) {
+                return BAND_SOURCE0;
+            } else if (controlValue < (lowerBound + edgeFalloff)) {
+                return BAND_LOWER_EDGE;
+            } else if (controlValue < (upperBound - edgeFalloff)) {
+                return BAND_SOURCE1;
+            } else if (controlValue < (upperBound + edgeFalloff)) {
+                return BAND_UPPER_EDGE;
+            } else {
+                return BAND_SOURCE0;
+            }
+        } else {
+            if (controlValue < lowerBound || controlValue > upperBound) {
+                return BAND_SOURCE0;
+            } else {
+                return BAND_SOURCE1;
+            }
+        }
+    }
+
+    // Applies the selection rules of getValue() to already evaluated source
+    // values.  A source value that the band of the control value does not
+    // need is ignored, so it may be left unevaluated.
+    private static double select(double controlValue, double v0, double v1, double lowerBound, double upperBound, double edgeFalloff) {
+        switch (band(controlValue, lowerBound, upperBound, edgeFalloff)) {
+            case BAND_LOWER_EDGE: {
+                double lowerCurve = (lowerBound - edgeFalloff);
+                double upperCurve = (lowerBound + edgeFalloff);
+                double alpha = Utils.sCurve3((controlValue - lowerCurve) / (upperCurve - lowerCurve));
+                return Utils.linearInterp(v0, v1, alpha);
+            }
+            case BAND_SOURCE1:
+                return v1;
+            case BAND_UPPER_EDGE: {
+                double lowerCurve = (upperBound - edgeFalloff);
+                double upperCurve = (upperBound + edgeFalloff);
+                double alpha = Utils.sCurve3((controlValue - lowerCurve) / (upperCurve - lowerCurve));
+                return Utils.linearInterp(v1, v0, alpha);
+            }
+            default:
+                return v0;
+        }
+    }
 }
@@ -29,15 +29,23 @@
  */
 package spongepowered.noise.module.modifier;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import spongepowered.noise.Utils;
 import spongepowered.noise.exception.NoModuleException;
 import spongepowered.noise.module.Module;
 
 public class Curve extends Module {
-    private final List<ControlPoint> controlPoints = new ArrayList<>();
+    // Number of values stored per segment in the coefficient array.
+    private static final int SEGMENT_STRIDE = 6;
+    // Number of control points stored in this noise module.
+    private int controlPointCount = 0;
+    // Input values of the control points, sorted.
+    private double[] inputValues = new double[0];
+    // Output values of the control points, in the same order.
+    private double[] outputValues = new double[0];
+    // Cubic coefficients of the curve between every two neighbouring control
+    // points: p, q, r and the output value of the left point, followed by the
+    // input value of the left point and the width of the segment.
+    private double[] segments = new double[0];
 
     public Curve() {
         super(1);
@@ -49,21 +57,34 @@ public class Curve extends Module {
     }
 
     public ControlPoint[] getControlPoints() {
-        return (ControlPoint[]) controlPoints.toArray();
+        ControlPoint[] points = new ControlPoint[controlPointCount];
+        for (int i = 0; i < controlPointCount; i++) {
+            points[i] = new ControlPoint();
+            points[i].inputValue = inputValues[i];
+            points[i].outputValue = outputValues[i];
+        }
+        return points;
+    }
+
+    public int getControlPointCount() {
+        return controlPointCount;
     }
 
     public void clearAllControlPoints() {
-        controlPoints.clear();
+        controlPointCount = 0;
+        inputValues = new double[0];
+        outputValues = new double[0];
+        segments = new double[0];
     }
 
     private int findInsertionPos(double inputValue) {
         int insertionPos;
-        for (insertionPos = 0; insertionPos < controlPoints.size(); insertionPos++) {
-            if (inputValue < controlPoints.get(insertionPos).inputValue) {
+        for (insertionPos = 0; insertionPos < controlPointCount; insertionPos++) {
+            if (inputValue < inputValues[insertionPos]) {
                 // We found the array index in which to insert the new control point.
                 // Exit now.
                 break;
-            } else if (inputValue == controlPoints.get(insertionPos).inputValue) {
+            } else if (inputValue == inputValues[insertionPos]) {
                 // Each control point is required to contain a unique input value, so
                 // throw an exception.
                 throw new IllegalArgumentException("inputValue must be unique");
@@ -73,10 +94,44 @@ public class Curve extends Module {
     }
 
     private void insertAtPos(int insertionPos, double inputValue, double outputValue) {
-        ControlPoint newPoint = new ControlPoint();
-        newPoint.inputValue = inputValue;
-        newPoint.outputValue = outputValue;
-        controlPoints.add(insertionPos, newPoint);
+        double[] newInputValues = new double[controlPointCount + 1];
+        double[] newOutputValues = new double[controlPointCount + 1];
+        System.arraycopy(inputValues, 0, newInputValues, 0, insertionPos);
+        System.arraycopy(outputValues, 0, newOutputValues, 0, insertionPos);
+        System.arraycopy(inputValues, insertionPos, newInputValues, insertionPos + 1, controlPointCount - insertionPos);
+        System.arraycopy(outputValues, insertionPos, newOutputValues, insertionPos + 1, controlPointCount - insertionPos);
+        newInputValues[insertionPos] = inputValue;
+        newOutputValues[insertionPos] = outputValue;
+
+        inputValues = newInputValues;
+        outputValues = newOutputValues;
+        ++controlPointCount;
+        calcSegments();
+    }
+
+    // Precomputes the cubic coefficients of every segment, the same way
+    // Utils.cubicInterp() computes them.
+    private void calcSegments() {
+        final int lastIndex = controlPointCount - 1;
+        double[] newSegments = new double[Math.max(0, lastIndex) * SEGMENT_STRIDE];
+        for (int segment = 0; segment < lastIndex; segment++) {
+            double n0 = outputValues[Math.max(segment - 1, 0)];
+            double n1 = outputValues[segment];
+            double n2 = outputValues[segment + 1];
+            double n3 = outputValues[Math.min(segment + 2, lastIndex)];
+            double p = (n3 - n2) - (n0 - n1);
+            double q = (n0 - n1) - p;
+            double r = n2 - n0;
+
+            int offset = segment * SEGMENT_STRIDE;
+            newSegments[offset] = p;
+            newSegments[offset + 1] = q;
+            newSegments[offset + 2] = r;
+            newSegments[offset + 3] = n1;
+            newSegments[offset + 4] = inputValues[segment];
+            newSegments[offset + 5] = inputValues[segment + 1] - inputValues[segment];
+        }
+        segments = newSegments;
     }
 
     @Override
@@ -89,50 +144,70 @@ public class Curve extends Module {
         if (sourceModule[0] == null) {
             throw new NoModuleException();
         }
-        final int size = controlPoints.size();
-        if (size < 4) {
+        if (controlPointCount < 4) {
             throw new RuntimeException("Curve module must have at least 4 control points");
         }
 
         // Get the output value from the source module.
         double sourceModuleValue = sourceModule[0].getValue(x, y, z);
 
-        // Find the first element in the control point array that has an input value
-        // larger than the output value from the source module.
-        int indexPos;
-        for (indexPos = 0; indexPos < size; indexPos++) {
-            if (sourceModuleValue < controlPoints.get(indexPos).inputValue) {
-                break;
-            }
+        return map(sourceModuleValue, inputValues, outputValues, segments, controlPointCount);
+    }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        if (controlPointCount < 4) {
+            throw new RuntimeException("Curve module must have at least 4 control points");
         }
+        checkBulkArguments(out, x, y, z, count);
+        sourceModule[0].getValues(out, x, y, z, count);
+
+        double[] inputValues = this.inputValues;
+        double[] outputValues = this.outputValues;
+        double[] segments = this.segments;
+        int size = controlPointCount;
+        for (int i = 0; i < count; i++) {
+            out[i] = map(out[i], inputValues, outputValues, segments, size);
+        }
+    }
 
-        // Find the four nearest control points so that we can perform cubic
-        // interpolation.
-        final int lastIndex = size - 1;
-        int index0 = Utils.clamp(indexPos - 2, 0, lastIndex);
-        int index1 = Utils.clamp(indexPos - 1, 0, lastIndex);
-        int index2 = Utils.clamp(indexPos, 0, lastIndex);
-        int index3 = Utils.clamp(indexPos + 1, 0, lastIndex);
+    private static double map(double value, double[] inputValues, double[] outputValues, double[] segments, int size) {
+        // Find the first element in the control point array that has an input value
+        // larger than the output value from the source module.
+        int indexPos = Utils.upperBound(inputValues, size, value);
 
         // If some control points are missing (which occurs if the value from the
         // source module is greater than the largest input value or less than the
         // smallest input value of the control point array), get the corresponding
         // output value of the nearest control point and exit now.
-        if (index1 == index2) {
-            return controlPoints.get(index1).outputValue;
+        if (indexPos == 0) {
+            return outputValues[0];
+        }
+        if (indexPos == size) {
+            return outputValues[size - 1];
         }
 
         // Compute the alpha value used for cubic interpolation.
-        double input0 = controlPoints.get(index1).inputValue;
-        double input1 = controlPoints.get(index2).inputValue;
-        double alpha = (sourceModuleValue - input0) / (input1 - input0);
+        int offset = (indexPos - 1) * SEGMENT_STRIDE;
+        double alpha = (value - segments[offset + 4]) / segments[offset + 5];
 
         // Now perform the cubic interpolation given the alpha value.
-        return Utils.cubicInterp(controlPoints.get(index0).outputValue, controlPoints.get(index1).outputValue, controlPoints.get(index2).outputValue, controlPoints.get(index3).outputValue, alpha);
+        return segments[offset] * alpha * alpha * alpha + segments[offset + 1] * alpha * alpha + segments[offset + 2] * alpha + segments[offset + 3];
     }
 
     public static class ControlPoint {
         private double inputValue;
         private double outputValue;
+
+        public double getInputValue() {
+            return inputValue;
+        }
+
+        public double getOutputValue() {
+            return outputValue;
+        }
     }
 }
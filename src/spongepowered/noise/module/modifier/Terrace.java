@@ -139,14 +139,29 @@ public class Terrace extends Module {
         // Get the output value from the source module.
         double sourceModuleValue = sourceModule[0].getValue(x, y, z);
 
+        return map(sourceModuleValue, controlPoints, controlPointCount, invertTerraces);
+    }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+        sourceModule[0].getValues(out, x, y, z, count);
+
+        double[] controlPoints = this.controlPoints;
+        int controlPointCount = this.controlPointCount;
+        boolean invertTerraces = this.invertTerraces;
+        for (int i = 0; i < count; i++) {
+            out[i] = map(out[i], controlPoints, controlPointCount, invertTerraces);
+        }
+    }
+
+    private static double map(double value, double[] controlPoints, int controlPointCount, boolean invertTerraces) {
         // Find the first element in the control point array that has a value
         // larger than the output value from the source module.
-        int indexPos;
-        for (indexPos = 0; indexPos < controlPointCount; indexPos++) {
-            if (sourceModuleValue < controlPoints[indexPos]) {
-                break;
-            }
-        }
+        int indexPos = Utils.upperBound(controlPoints, controlPointCount, value);
 
         // Find the two nearest control points so that we can map their values
         // onto a quadratic curve.
@@ -164,7 +179,7 @@ public class Terrace extends Module {
         // Compute the alpha value used for linear interpolation.
         double value0 = controlPoints[index0];
         double value1 = controlPoints[index1];
-        double alpha = (sourceModuleValue - value0) / (value1 - value0);
+        double alpha = (value - value0) / (value1 - value0);
         if (invertTerraces) {
             alpha = 1.0 - alpha;
             double temp = value0;
@@ -36,8 +36,21 @@ import spongepowered.noise.module.source.Perlin;
 public class Turbulence extends Module {
     // Default power for the noise::module::Turbulence noise module.
     public static final double DEFAULT_TURBULENCE_POWER = 1.0;
+    // Offsets added to the input value before it is passed to each of the
+    // distortion modules.
+    private static final double X_DISTORT_OFFSET_X = 12414.0 / 65536.0;
+    private static final double X_DISTORT_OFFSET_Y = 65124.0 / 65536.0;
+    private static final double X_DISTORT_OFFSET_Z = 31337.0 / 65536.0;
+    private static final double Y_DISTORT_OFFSET_X = 26519.0 / 65536.0;
+    private static final double Y_DISTORT_OFFSET_Y = 18128.0 / 65536.0;
+    private static final double Y_DISTORT_OFFSET_Z = 60493.0 / 65536.0;
+    private static final double Z_DISTORT_OFFSET_X = 53820.0 / 65536.0;
+    private static final double Z_DISTORT_OFFSET_Y = 11213.0 / 65536.0;
+    private static final double Z_DISTORT_OFFSET_Z = 44845.0 / 65536.0;
     // The power (scale) of the displacement.
     private double power = DEFAULT_TURBULENCE_POWER;
+    // Determines if only the @a x and @a y coordinates are displaced.
+    private boolean planar = false;
     // Noise module that displaces the @a x coordinate.
     private final Perlin xDistortModule;
     // Noise module that displaces the @a y coordinate.
@@ -60,6 +73,22 @@ public class Turbulence extends Module {
         this.power = power;
     }
 
+    public boolean isPlanar() {
+        return planar;
+    }
+
+    /**
+     * Enables or disables planar displacement.
+     * <p/>
+     * When planar, the @a x and @a y coordinates are displaced exactly as they are otherwise, but the @a z coordinate is passed through unchanged and the @a z distortion module is never evaluated.
+     * This is meant for noise sampled in a plane of constant @a z, such as a tile map.
+     *
+     * @param planar Specifies whether to leave the @a z coordinate undisplaced.
+     */
+    public void setPlanar(boolean planar) {
+        this.planar = planar;
+    }
+
     public int getRoughnessCount() {
         return xDistortModule.getOctaveCount();
     }
@@ -111,21 +140,66 @@ public class Turbulence extends Module {
         double x0, y0, z0;
         double x1, y1, z1;
         double x2, y2, z2;
-        x0 = x + (12414.0 / 65536.0);
-        y0 = y + (65124.0 / 65536.0);
-        z0 = z + (31337.0 / 65536.0);
-        x1 = x + (26519.0 / 65536.0);
-        y1 = y + (18128.0 / 65536.0);
-        z1 = z + (60493.0 / 65536.0);
-        x2 = x + (53820.0 / 65536.0);
-        y2 = y + (11213.0 / 65536.0);
-        z2 = z + (44845.0 / 65536.0);
+        x0 = x + X_DISTORT_OFFSET_X;
+        y0 = y + X_DISTORT_OFFSET_Y;
+        z0 = z + X_DISTORT_OFFSET_Z;
+        x1 = x + Y_DISTORT_OFFSET_X;
+        y1 = y + Y_DISTORT_OFFSET_Y;
+        z1 = z + Y_DISTORT_OFFSET_Z;
+        x2 = x + Z_DISTORT_OFFSET_X;
+        y2 = y + Z_DISTORT_OFFSET_Y;
+        z2 = z + Z_DISTORT_OFFSET_Z;
         double xDistort = x + (xDistortModule.getValue(x0, y0, z0) * power);
         double yDistort = y + (yDistortModule.getValue(x1, y1, z1) * power);
-        double zDistort = z + (zDistortModule.getValue(x2, y2, z2) * power);
+        double zDistort = planar ? z : z + (zDistortModule.getValue(x2, y2, z2) * power);
 
         // Retrieve the output value at the offset input value instead of the
         // original input value.
         return sourceModule[0].getValue(xDistort, yDistort, zDistort);
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        if (sourceModule[0] == null) {
+            throw new NoModuleException();
+        }
+        checkBulkArguments(out, x, y, z, count);
+
+        // Evaluate every distortion module in bulk at its offset input values,
+        // then the source module in bulk at the displaced input values.
+        double[] xDistort = new double[count];
+        double[] yDistort = new double[count];
+        distort(xDistortModule, xDistort, x, y, z, count, X_DISTORT_OFFSET_X, X_DISTORT_OFFSET_Y, X_DISTORT_OFFSET_Z, power);
+        distort(yDistortModule, yDistort, x, y, z, count, Y_DISTORT_OFFSET_X, Y_DISTORT_OFFSET_Y, Y_DISTORT_OFFSET_Z, power);
+        for (int i = 0; i < count; i++) {
+            xDistort[i] += x[i];
+            yDistort[i] += y[i];
+        }
+        double[] zDistort = z;
+        if (!planar) {
+            zDistort = new double[count];
+            distort(zDistortModule, zDistort, x, y, z, count, Z_DISTORT_OFFSET_X, Z_DISTORT_OFFSET_Y, Z_DISTORT_OFFSET_Z, power);
+            for (int i = 0; i < count; i++) {
+                zDistort[i] += z[i];
+            }
+        }
+        sourceModule[0].getValues(out, xDistort, yDistort, zDistort, count);
+    }
+
+    // Writes the distortion module's output at the offset input values,
+    // multiplied by the power, to out.
+    private static void distort(Perlin module, double[] out, double[] x, double[] y, double[] z, int count, double xOffset, double yOffset, double zOffset, double power) {
+        double[] xOffsetInput = new double[count];
+        double[] yOffsetInput = new double[count];
+        double[] zOffsetInput = new double[count];
+        for (int i = 0; i < count; i++) {
+            xOffsetInput[i] = x[i] + xOffset;
+            yOffsetInput[i] = y[i] + yOffset;
+            zOffsetInput[i] = z[i] + zOffset;
+        }
+        module.getValues(out, xOffsetInput, yOffsetInput, zOffsetInput, count);
+        for (int i = 0; i < count; i++) {
+            out[i] *= power;
+        }
+    }
 }
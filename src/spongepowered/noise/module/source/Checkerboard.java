@@ -50,4 +50,15 @@ public class Checkerboard extends Module {
         int iz = Utils.floor(Utils.makeInt32Range(z));
         return ((ix & 1 ^ iy & 1 ^ iz & 1) != 0) ? 0 : 1.0;
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        checkBulkArguments(out, x, y, z, count);
+        for (int i = 0; i < count; i++) {
+            int ix = Utils.floor(Utils.makeInt32Range(x[i]));
+            int iy = Utils.floor(Utils.makeInt32Range(y[i]));
+            int iz = Utils.floor(Utils.makeInt32Range(z[i]));
+            out[i] = ((ix & 1 ^ iy & 1 ^ iz & 1) != 0) ? 0 : 1.0;
+        }
+    }
 }
@@ -29,6 +29,8 @@
  */
 package spongepowered.noise.module.source;
 
+import java.util.Arrays;
+
 import spongepowered.noise.module.Module;
 
 public class Const extends Module {
@@ -56,4 +58,10 @@ public class Const extends Module {
     public double getValue(double x, double y, double z) {
         return value;
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        checkBulkArguments(out, x, y, z, count);
+        Arrays.fill(out, 0, count, value);
+    }
 }
@@ -61,6 +61,13 @@ public class Perlin extends Module {
     private double persistence = DEFAULT_PERLIN_PERSISTENCE;
     // Seed value used by the Perlin-noise function.
     private int seed = DEFAULT_PERLIN_SEED;
+    // Distance between neighbouring samples; octaves too fine to be seen at
+    // this spacing are skipped.  0 evaluates every octave.
+    private double lodFootprint = 0.0;
+    // Number of octaves evaluated at full strength for the current footprint.
+    private int lodOctaveCount = DEFAULT_PERLIN_OCTAVE_COUNT;
+    // Weight of the octave after them, 0 if it is not evaluated.
+    private double lodFade = 0.0;
 
     public Perlin() {
         super(0);
@@ -72,6 +79,7 @@ public class Perlin extends Module {
 
     public void setFrequency(double frequency) {
         this.frequency = frequency;
+        updateLod();
     }
 
     public double getLacunarity() {
@@ -80,6 +88,7 @@ public class Perlin extends Module {
 
     public void setLacunarity(double lacunarity) {
         this.lacunarity = lacunarity;
+        updateLod();
     }
 
     public NoiseQuality getNoiseQuality() {
@@ -100,6 +109,7 @@ public class Perlin extends Module {
         }
 
         this.octaveCount = octaveCount;
+        updateLod();
     }
 
     public double getPersistence() {
@@ -117,6 +127,32 @@ public class Perlin extends Module {
     public void setSeed(int seed) {
         this.seed = seed;
     }
+
+    public double getLodFootprint() {
+        return lodFootprint;
+    }
+
+    /**
+     * Sets the distance between neighbouring samples, which lets this noise module skip the octaves that are too fine to be seen at that spacing.
+     *
+     * @param lodFootprint The distance between neighbouring samples, in input units; 0 evaluates every octave.
+     * <p/>
+     * The octaves whose frequency reaches half the sampling rate are skipped, and the highest evaluated octave fades out gradually, so the output changes smoothly with the footprint.  Use this
+     * for zoomed-out views like minimaps, where the skipped octaves would only add aliasing.
+     */
+    public void setLodFootprint(double lodFootprint) {
+        if (!(lodFootprint >= 0.0)) {
+            throw new IllegalArgumentException("lodFootprint must not be negative");
+        }
+        this.lodFootprint = lodFootprint;
+        updateLod();
+    }
+
+    private void updateLod() {
+        double octaves = Utils.lodOctaveCount(frequency, lacunarity, octaveCount, lodFootprint);
+        lodOctaveCount = (int) octaves;
+        lodFade = octaves - lodOctaveCount;
+    }
     
     /**
      * Returns the maximum value the perlin module can output in it's current configuration
@@ -151,7 +187,9 @@ public class Perlin extends Module {
         y1 *= frequency;
         z1 *= frequency;
 
-        for (int curOctave = 0; curOctave < octaveCount; curOctave++) {
+        // Skip the octaves that are too fine for the level of detail.
+        int octaves = lodFade > 0.0 ? lodOctaveCount + 1 : lodOctaveCount;
+        for (int curOctave = 0; curOctave < octaves; curOctave++) {
 
             // Make sure that these floating-point values have the same range as a 32-
             // bit integer so that we can pass them to the coherent-noise functions.
@@ -163,6 +201,10 @@ public class Perlin extends Module {
             // final result.
             seed = (this.seed + curOctave);
             signal = Noise.gradientCoherentNoise3D(nx, ny, nz, seed, noiseQuality);
+            if (curOctave == lodOctaveCount) {
+                // Fade out the highest octave.
+                signal *= lodFade;
+            }
             value += signal * curPersistence;
 
             // Prepare the next octave.
@@ -174,4 +216,39 @@ public class Perlin extends Module {
 
         return value;
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        checkBulkArguments(out, x, y, z, count);
+        double[] x1 = new double[count];
+        double[] y1 = new double[count];
+        double[] z1 = new double[count];
+        for (int i = 0; i < count; i++) {
+            x1[i] = x[i] * frequency;
+            y1[i] = y[i] * frequency;
+            z1[i] = z[i] * frequency;
+            out[i] = 0.0;
+        }
+
+        // Evaluate one octave for every input value at a time, accumulating in
+        // the same order as getValue() so the results are identical.
+        double curPersistence = 1.0;
+        // Skip the octaves that are too fine for the level of detail.
+        int octaves = lodFade > 0.0 ? lodOctaveCount + 1 : lodOctaveCount;
+        for (int curOctave = 0; curOctave < octaves; curOctave++) {
+            int seed = (this.seed + curOctave);
+            for (int i = 0; i < count; i++) {
+                double signal = Noise.gradientCoherentNoise3D(Utils.makeInt32Range(x1[i]), Utils.makeInt32Range(y1[i]), Utils.makeInt32Range(z1[i]), seed, noiseQuality);
+                if (curOctave == lodOctaveCount) {
+                    // Fade out the highest octave.
+                    signal *= lodFade;
+                }
+                out[i] += signal * curPersistence;
+                x1[i] *= lacunarity;
+                y1[i] *= lacunarity;
+                z1[i] *= lacunarity;
+            }
+            curPersistence *= persistence;
+        }
+    }
 }
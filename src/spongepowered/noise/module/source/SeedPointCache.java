@@ -0,0 +1,108 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.module.source;
+
+import spongepowered.noise.Noise;
+
+/**
+ * Bounded cache of the seed points used by the {@link Voronoi} noise module.
+ * <p/>
+ * Each unit cube contains one seed point whose position is derived from three value-noise lookups. Neighbouring samples visit nearly the same set of cubes, so the positions are kept in a
+ * direct-mapped table keyed by the integer cube coordinates and the seed.
+ * <p/>
+ * Entries are immutable and published through a plain array store. A racing reader either sees a complete entry or a stale one, which it rejects by comparing the key, so the cache can be shared
+ * by any number of threads without locking.
+ */
+final class SeedPointCache {
+    // Number of entries in the shared table; must be a power of two.
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    // Cache shared by every Voronoi module.
+    static final SeedPointCache SHARED = new SeedPointCache(DEFAULT_CAPACITY);
+
+    // Direct-mapped table of seed points.
+    private final SeedPoint[] entries;
+    // Mask used to map a hash onto an index in the table.
+    private final int mask;
+
+    SeedPointCache(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("capacity must be a positive power of two");
+        }
+        entries = new SeedPoint[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the seed point inside the unit cube at ( @a x, @a y, @a z ).
+     *
+     * @param x The integer @a x coordinate of the cube.
+     * @param y The integer @a y coordinate of the cube.
+     * @param z The integer @a z coordinate of the cube.
+     * @param seed The seed of the Voronoi module.
+     * @return The seed point, computed exactly as {@link Voronoi#getValue(double, double, double)} would.
+     */
+    SeedPoint get(int x, int y, int z, int seed) {
+        int index = hash(x, y, z, seed) & mask;
+        SeedPoint point = entries[index];
+        if (point == null || point.x != x || point.y != y || point.z != z || point.seed != seed) {
+            point = new SeedPoint(x, y, z, seed);
+            entries[index] = point;
+        }
+        return point;
+    }
+
+    private static int hash(int x, int y, int z, int seed) {
+        int h = x * 0x9E3779B1 + y * 0x85EBCA77 + z * 0xC2B2AE3D + seed * 0x27D4EB2F;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Position of the seed point inside one unit cube.
+     */
+    static final class SeedPoint {
+        final int x;
+        final int y;
+        final int z;
+        final int seed;
+        final double xPos;
+        final double yPos;
+        final double zPos;
+
+        SeedPoint(int x, int y, int z, int seed) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.seed = seed;
+            this.xPos = x + Noise.valueNoise3D(x, y, z, seed);
+            this.yPos = y + Noise.valueNoise3D(x, y, z, seed + 1);
+            this.zPos = z + Noise.valueNoise3D(x, y, z, seed + 2);
+        }
+    }
+}
@@ -35,6 +35,12 @@ import spongepowered.noise.module.Module;
 
 public class Voronoi extends Module {
     private static final double SQRT_3 = 1.7320508075688772935;
+    // Largest scaled coordinate handled by the planar search; beyond this the
+    // integer cube coordinates can overflow, so the full search is used.
+    private static final double PLANAR_COORDINATE_LIMIT = 1073741824.0;
+    // Offsets from the cube containing the input value, nearest cubes first,
+    // so the planar search finds a close seed point early and can prune the rest.
+    private static final int[] PLANAR_SEARCH_ORDER = {0, 1, -1, 2, -2};
     // Default displacement to apply to each cell for the
     // noise::module::Voronoi noise module.
     public static final double DEFAULT_VORONOI_DISPLACEMENT = 1.0;
@@ -101,8 +107,7 @@ public class Voronoi extends Module {
         double x1 = x;
         double y1 = y;
         double z1 = z;
-        // This method could be more efficient by caching the seed values.  Fix
-        // later.
+        SeedPointCache cache = SeedPointCache.SHARED;
 
         x1 *= frequency;
         y1 *= frequency;
@@ -125,10 +130,12 @@ public class Voronoi extends Module {
                 for (int xCur = xInt - 2; xCur <= xInt + 2; xCur++) {
 
                     // Calculate the position and distance to the seed point inside of
-                    // this unit cube.
-                    double xPos = xCur + Noise.valueNoise3D(xCur, yCur, zCur, seed);
-                    double yPos = yCur + Noise.valueNoise3D(xCur, yCur, zCur, seed + 1);
-                    double zPos = zCur + Noise.valueNoise3D(xCur, yCur, zCur, seed + 2);
+                    // this unit cube.  The positions are shared between calls through
+                    // the seed-point cache.
+                    SeedPointCache.SeedPoint point = cache.get(xCur, yCur, zCur, seed);
+                    double xPos = point.xPos;
+                    double yPos = point.yPos;
+                    double zPos = point.zPos;
                     double xDist = xPos - x1;
                     double yDist = yPos - y1;
                     double zDist = zPos - z1;
@@ -160,4 +167,109 @@ public class Voronoi extends Module {
         // Return the calculated distance with the displacement value applied.
         return value + (displacement * Noise.valueNoise3D(Utils.floor(xCandidate), Utils.floor(yCandidate), Utils.floor(zCandidate), seed));
     }
+
+    @Override
+    public void getValues(double[] out, double[] x, double[] y, double[] z, int count) {
+        checkBulkArguments(out, x, y, z, count);
+        for (int i = 0; i < count; i++) {
+            // Input values on the plane z = 0 take the pruned planar search.
+            out[i] = (z[i] == 0.0) ? getValue2D(x[i], y[i]) : getValue(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * Generates an output value on the plane @a z = 0.
+     * <p/>
+     * The result is bit-identical to {@link #getValue(double, double, double)} with @a z = 0, but only the nearby cubes that can still contain the nearest seed point are visited.  Every seed point
+     * lies inside its unit cube, so the distance from the input value to a cube's bounds is a lower bound for the distance to its seed point.  Cubes whose bound exceeds the best distance found so
+     * far are skipped, and ties are resolved in the same order as the full search.
+     *
+     * @param x The @a x coordinate of the input value.
+     * @param y The @a y coordinate of the input value.
+     * @return The output value at ( @a x, @a y, 0 ).
+     */
+    public double getValue2D(double x, double y) {
+        double x1 = x * frequency;
+        double y1 = y * frequency;
+        double z1 = 0 * frequency;
+        if (!(Math.abs(x1) < PLANAR_COORDINATE_LIMIT && Math.abs(y1) < PLANAR_COORDINATE_LIMIT)) {
+            return getValue(x, y, 0);
+        }
+        SeedPointCache cache = SeedPointCache.SHARED;
+
+        int xInt = (x1 > 0.0 ? (int) x1 : (int) x1 - 1);
+        int yInt = (y1 > 0.0 ? (int) y1 : (int) y1 - 1);
+        // The input value lies on the boundary between the cubes at z = -1 and
+        // z = 0, so these two layers are searched first.
+        int zInt = -1;
+
+        double minDist = 2147483647.0;
+        int minIndex = Integer.MAX_VALUE;
+        double xCandidate = 0;
+        double yCandidate = 0;
+        double zCandidate = 0;
+
+        for (int zOffset : PLANAR_SEARCH_ORDER) {
+            int zCur = zInt + zOffset;
+            double zBound = cubeDistance(zCur, z1);
+            double zBoundSq = zBound * zBound;
+            if (zBoundSq > minDist) {
+                continue;
+            }
+            for (int yOffset : PLANAR_SEARCH_ORDER) {
+                int yCur = yInt + yOffset;
+                double yBound = cubeDistance(yCur, y1);
+                if (yBound * yBound + zBoundSq > minDist) {
+                    continue;
+                }
+                for (int xOffset : PLANAR_SEARCH_ORDER) {
+                    int xCur = xInt + xOffset;
+                    double xBound = cubeDistance(xCur, x1);
+                    if (xBound * xBound + yBound * yBound + zBoundSq > minDist) {
+                        continue;
+                    }
+
+                    SeedPointCache.SeedPoint point = cache.get(xCur, yCur, zCur, seed);
+                    double xDist = point.xPos - x1;
+                    double yDist = point.yPos - y1;
+                    double zDist = point.zPos - z1;
+                    double dist = xDist * xDist + yDist * yDist + zDist * zDist;
+
+                    // Position of this cube in the scan order of the full search,
+                    // which keeps the first of several equally distant seed points.
+                    int index = ((zOffset + 2) * 5 + (yOffset + 2)) * 5 + (xOffset + 2);
+                    if (dist < minDist || (dist == minDist && index < minIndex)) {
+                        minDist = dist;
+                        minIndex = index;
+                        xCandidate = point.xPos;
+                        yCandidate = point.yPos;
+                        zCandidate = point.zPos;
+                    }
+                }
+            }
+        }
+
+        double value;
+        if (enableDistance) {
+            double xDist = xCandidate - x1;
+            double yDist = yCandidate - y1;
+            double zDist = zCandidate - z1;
+            value = Math.sqrt(xDist * xDist + yDist * yDist + zDist * zDist) / SQRT_3;
+        } else {
+            value = 0.0;
+        }
+        return value + (displacement * Noise.valueNoise3D(Utils.floor(xCandidate), Utils.floor(yCandidate), Utils.floor(zCandidate), seed));
+    }
+
+    // Returns the distance along one axis from @a p to the unit cube starting
+    // at @a cube, computed so that it never exceeds the distance to any seed
+    // point inside that cube.
+    private static double cubeDistance(int cube, double p) {
+        if (p < cube) {
+            return cube - p;
+        } else if (p > cube + 1) {
+            return p - (cube + 1);
+        }
+        return 0.0;
+    }
 }
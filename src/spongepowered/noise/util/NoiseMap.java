@@ -0,0 +1,215 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * A two-dimensional array of single-precision output values, such as a heightmap generated by a {@link NoiseMapBuilder}.
+ * <p/>
+ * The values are stored row by row in one primitive array, so value ( @a x, @a y ) is element @a y * width + @a x.  A noise map created with {@link #allocateDirect(int, int)} keeps its values
+ * outside the Java heap, where they can be handed to native code or a graphics API without copying.
+ * <p/>
+ * Reading a value outside the noise map returns the border value.  Writing values is not synchronized, but different rows may be written by different threads at the same time.
+ */
+public final class NoiseMap {
+    // Default border value.
+    public static final float DEFAULT_BORDER_VALUE = 0.0f;
+    // Width of the noise map.
+    private final int width;
+    // Height of the noise map.
+    private final int height;
+    // The values on the heap, or null if they are stored off-heap.
+    private final float[] values;
+    // The values; wraps the heap array when there is one.
+    private final FloatBuffer buffer;
+    // Value returned for positions outside the noise map.
+    private float borderValue = DEFAULT_BORDER_VALUE;
+
+    /**
+     * Creates a noise map of the given size stored on the heap, with every value set to 0.
+     *
+     * @param width The width of the noise map.
+     * @param height The height of the noise map.
+     */
+    public NoiseMap(int width, int height) {
+        this(width, height, false);
+    }
+
+    private NoiseMap(int width, int height, boolean direct) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        if ((long) width * height > Integer.MAX_VALUE / (direct ? 4 : 1)) {
+            throw new IllegalArgumentException("noise map of " + width + " x " + height + " values is too large");
+        }
+        this.width = width;
+        this.height = height;
+        if (direct) {
+            this.values = null;
+            this.buffer = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        } else {
+            this.values = new float[width * height];
+            this.buffer = FloatBuffer.wrap(values);
+        }
+    }
+
+    /**
+     * Creates a noise map of the given size stored outside the Java heap, with every value set to 0.
+     *
+     * @param width The width of the noise map.
+     * @param height The height of the noise map.
+     */
+    public static NoiseMap allocateDirect(int width, int height) {
+        return new NoiseMap(width, height, true);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Determines if the values are stored outside the Java heap.
+     */
+    public boolean isDirect() {
+        return values == null;
+    }
+
+    public float getBorderValue() {
+        return borderValue;
+    }
+
+    public void setBorderValue(float borderValue) {
+        this.borderValue = borderValue;
+    }
+
+    /**
+     * Returns the value at the given position, or the border value if the position is outside the noise map.
+     *
+     * @param x The @a x coordinate of the position.
+     * @param y The @a y coordinate of the position.
+     * @return The value at that position.
+     */
+    public float getValue(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return borderValue;
+        }
+        int index = y * width + x;
+        return values != null ? values[index] : buffer.get(index);
+    }
+
+    /**
+     * Sets the value at the given position.
+     *
+     * @param x The @a x coordinate of the position.
+     * @param y The @a y coordinate of the position.
+     * @param value The value to set.
+     * @throws IllegalArgumentException if the position is outside the noise map.
+     */
+    public void setValue(int x, int y, float value) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("position (" + x + ", " + y + ") is outside the noise map");
+        }
+        int index = y * width + x;
+        if (values != null) {
+            values[index] = value;
+        } else {
+            buffer.put(index, value);
+        }
+    }
+
+    /**
+     * Sets a whole row of values, converting them to single precision.
+     *
+     * @param y The row to set.
+     * @param row The values of the row; the first @a width elements are used.
+     * @throws IllegalArgumentException if the row is outside the noise map or @a row is too short.
+     */
+    public void setRow(int y, double[] row) {
+        if (y < 0 || y >= height) {
+            throw new IllegalArgumentException("row " + y + " is outside the noise map");
+        }
+        if (row.length < width) {
+            throw new IllegalArgumentException("row must hold at least " + width + " values");
+        }
+        int start = y * width;
+        if (values != null) {
+            for (int x = 0; x < width; x++) {
+                values[start + x] = (float) row[x];
+            }
+        } else {
+            for (int x = 0; x < width; x++) {
+                buffer.put(start + x, (float) row[x]);
+            }
+        }
+    }
+
+    /**
+     * Sets every value of the noise map.
+     *
+     * @param value The value to set.
+     */
+    public void clear(float value) {
+        if (values != null) {
+            Arrays.fill(values, value);
+        } else {
+            for (int i = 0; i < width * height; i++) {
+                buffer.put(i, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the values of a heap noise map, row by row.  Changes to the array are visible in the noise map.
+     *
+     * @throws IllegalStateException if the values are stored off-heap.
+     */
+    public float[] getArray() {
+        if (values == null) {
+            throw new IllegalStateException("the values of a direct noise map are not stored in an array");
+        }
+        return values;
+    }
+
+    /**
+     * Returns a buffer over the values, row by row, with its position at 0 and its limit at the end of the values.  The buffer shares its values with the noise map but has its own position
+     * and limit.
+     */
+    public FloatBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+}
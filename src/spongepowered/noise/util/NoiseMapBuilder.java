@@ -0,0 +1,169 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.util;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import spongepowered.noise.exception.NoModuleException;
+import spongepowered.noise.module.Module;
+
+/**
+ * Abstract base class for a noise-map builder.
+ * <p/>
+ * A builder class builds a noise map by filling it with the output values of a noise module, sampled over the surface of a model such as a plane, a sphere or a cylinder.  Every row of the noise
+ * map is a list of input values that is passed to the bulk path of the noise module.
+ * <p/>
+ * The rows are generated in parallel by default.  Every noise module of the graph must then allow concurrent calls; use ThreadLocalCache instead of Cache in such a graph, or disable parallel
+ * generation with {@link #setParallel(boolean)}.
+ */
+public abstract class NoiseMapBuilder {
+    // Number of rows below which the rows are not split between tasks.
+    private static final int ROWS_PER_TASK = 4;
+    // The noise module that is used to generate the output values.
+    private Module sourceModule;
+    // The noise map that receives the output values.
+    private NoiseMap destNoiseMap;
+    // Whether the rows are generated in parallel.
+    private boolean parallel = true;
+
+    public Module getSourceModule() {
+        if (sourceModule == null) {
+            throw new NoModuleException();
+        }
+        return sourceModule;
+    }
+
+    public void setSourceModule(Module sourceModule) {
+        if (sourceModule == null) {
+            throw new IllegalArgumentException("the module cannot be null");
+        }
+        this.sourceModule = sourceModule;
+    }
+
+    public NoiseMap getDestNoiseMap() {
+        return destNoiseMap;
+    }
+
+    /**
+     * Sets the noise map that receives the output values.  Its size is the size of the generated map.
+     *
+     * @param destNoiseMap The destination noise map.
+     */
+    public void setDestNoiseMap(NoiseMap destNoiseMap) {
+        if (destNoiseMap == null) {
+            throw new IllegalArgumentException("the noise map cannot be null");
+        }
+        this.destNoiseMap = destNoiseMap;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Builds the noise map.
+     *
+     * @throws NoModuleException if no source module has been set.
+     * @throws IllegalStateException if no destination noise map has been set or the bounds are invalid.
+     */
+    public void build() {
+        if (sourceModule == null) {
+            throw new NoModuleException();
+        }
+        if (destNoiseMap == null) {
+            throw new IllegalStateException("no destination noise map has been set");
+        }
+        prepare(destNoiseMap.getWidth(), destNoiseMap.getHeight());
+        RowTask task = new RowTask(this, 0, destNoiseMap.getHeight());
+        if (parallel) {
+            task.invoke();
+        } else {
+            task.compute();
+        }
+    }
+
+    /**
+     * Checks the bounds and precomputes everything that is shared by the rows of a noise map.
+     *
+     * @param width The width of the noise map.
+     * @param height The height of the noise map.
+     * @throws IllegalStateException if the bounds are invalid.
+     */
+    protected abstract void prepare(int width, int height);
+
+    /**
+     * Computes the input values of one row of the noise map.  May be called by several threads at once for different rows.
+     *
+     * @param row The row of the noise map.
+     * @param x Receives the @a x coordinates of the input values.
+     * @param y Receives the @a y coordinates of the input values.
+     * @param z Receives the @a z coordinates of the input values.
+     */
+    protected abstract void getRowCoordinates(int row, double[] x, double[] y, double[] z);
+
+    // Generates a range of rows, splitting it between tasks while it is large.
+    private static final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final NoiseMapBuilder builder;
+        private final int startRow;
+        private final int endRow;
+
+        RowTask(NoiseMapBuilder builder, int startRow, int endRow) {
+            this.builder = builder;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (builder.parallel && endRow - startRow > ROWS_PER_TASK) {
+                int middle = (startRow + endRow) >>> 1;
+                ForkJoinTask.invokeAll(new RowTask(builder, startRow, middle), new RowTask(builder, middle, endRow));
+                return;
+            }
+            NoiseMap map = builder.destNoiseMap;
+            int width = map.getWidth();
+            double[] x = new double[width];
+            double[] y = new double[width];
+            double[] z = new double[width];
+            double[] values = new double[width];
+            for (int row = startRow; row < endRow; row++) {
+                builder.getRowCoordinates(row, x, y, z);
+                builder.sourceModule.getValues(values, x, y, z, width);
+                map.setRow(row, values);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.util;
+
+import java.util.Arrays;
+
+/**
+ * Builds a cylindrical noise map.
+ * <p/>
+ * This class builds a noise map by filling it with the output values of a noise module, sampled over an angle and height range on the surface of a cylinder of radius 1 around the @a y axis (see
+ * {@link spongepowered.noise.model.Cylinder}).  The columns of the noise map follow the angle and the rows the height.
+ * <p/>
+ * The sine and cosine of every angle are computed once per noise map, so the map costs no trigonometry per value.
+ */
+public class NoiseMapBuilderCylinder extends NoiseMapBuilder {
+    // Lower angle boundary of the cylindrical noise map, in degrees.
+    private double lowerAngleBound = -180.0;
+    // Upper angle boundary of the cylindrical noise map, in degrees.
+    private double upperAngleBound = 180.0;
+    // Lower height boundary of the cylindrical noise map, in units.
+    private double lowerHeightBound = -1.0;
+    // Upper height boundary of the cylindrical noise map, in units.
+    private double upperHeightBound = 1.0;
+    // Cosine of the angle of every column.
+    private double[] angleCos;
+    // Sine of the angle of every column.
+    private double[] angleSin;
+    // Distance between the heights of two rows, in units.
+    private double heightDelta;
+
+    public double getLowerAngleBound() {
+        return lowerAngleBound;
+    }
+
+    public double getUpperAngleBound() {
+        return upperAngleBound;
+    }
+
+    public double getLowerHeightBound() {
+        return lowerHeightBound;
+    }
+
+    public double getUpperHeightBound() {
+        return upperHeightBound;
+    }
+
+    /**
+     * Sets the coordinate boundaries of the cylindrical noise map.
+     *
+     * @param lowerAngleBound The lower angle boundary of the noise map, in degrees.
+     * @param upperAngleBound The upper angle boundary of the noise map, in degrees.
+     * @param lowerHeightBound The lower height boundary of the noise map, in units.
+     * @param upperHeightBound The upper height boundary of the noise map, in units.
+     * @throws IllegalArgumentException if a lower boundary is not less than the corresponding upper boundary.
+     */
+    public void setBounds(double lowerAngleBound, double upperAngleBound, double lowerHeightBound, double upperHeightBound) {
+        if (lowerAngleBound >= upperAngleBound || lowerHeightBound >= upperHeightBound) {
+            throw new IllegalArgumentException("lower bounds must be less than upper bounds");
+        }
+        this.lowerAngleBound = lowerAngleBound;
+        this.upperAngleBound = upperAngleBound;
+        this.lowerHeightBound = lowerHeightBound;
+        this.upperHeightBound = upperHeightBound;
+    }
+
+    @Override
+    protected void prepare(int width, int height) {
+        double angleDelta = (upperAngleBound - lowerAngleBound) / width;
+        angleCos = new double[width];
+        angleSin = new double[width];
+        for (int x = 0; x < width; x++) {
+            double angle = Math.toRadians(lowerAngleBound + x * angleDelta);
+            angleCos[x] = Math.cos(angle);
+            angleSin[x] = Math.sin(angle);
+        }
+        heightDelta = (upperHeightBound - lowerHeightBound) / height;
+    }
+
+    @Override
+    protected void getRowCoordinates(int row, double[] x, double[] y, double[] z) {
+        double height = lowerHeightBound + row * heightDelta;
+        System.arraycopy(angleCos, 0, x, 0, angleCos.length);
+        Arrays.fill(y, 0, angleCos.length, height);
+        System.arraycopy(angleSin, 0, z, 0, angleSin.length);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.util;
+
+import java.util.Arrays;
+
+/**
+ * Builds a planar noise map.
+ * <p/>
+ * This class builds a noise map by filling it with the output values of a noise module, sampled over a rectangle on the surface of a plane (see {@link spongepowered.noise.model.Plane}).  Value
+ * ( @a x, @a y ) of the noise map is the output value at the input value ( lowerX + @a x * (upperX - lowerX) / width, 0, lowerZ + @a y * (upperZ - lowerZ) / height ).
+ */
+public class NoiseMapBuilderPlane extends NoiseMapBuilder {
+    // Lower @a x boundary of the planar noise map, in units.
+    private double lowerXBound = 0.0;
+    // Upper @a x boundary of the planar noise map, in units.
+    private double upperXBound = 1.0;
+    // Lower @a z boundary of the planar noise map, in units.
+    private double lowerZBound = 0.0;
+    // Upper @a z boundary of the planar noise map, in units.
+    private double upperZBound = 1.0;
+    // The @a x coordinate of every column.
+    private double[] columnX;
+    // Distance between the @a z coordinates of two rows.
+    private double zDelta;
+
+    public double getLowerXBound() {
+        return lowerXBound;
+    }
+
+    public double getUpperXBound() {
+        return upperXBound;
+    }
+
+    public double getLowerZBound() {
+        return lowerZBound;
+    }
+
+    public double getUpperZBound() {
+        return upperZBound;
+    }
+
+    /**
+     * Sets the boundaries of the planar noise map.
+     *
+     * @param lowerXBound The lower @a x boundary of the noise map, in units.
+     * @param upperXBound The upper @a x boundary of the noise map, in units.
+     * @param lowerZBound The lower @a z boundary of the noise map, in units.
+     * @param upperZBound The upper @a z boundary of the noise map, in units.
+     * @throws IllegalArgumentException if a lower boundary is not less than the corresponding upper boundary.
+     */
+    public void setBounds(double lowerXBound, double upperXBound, double lowerZBound, double upperZBound) {
+        if (lowerXBound >= upperXBound || lowerZBound >= upperZBound) {
+            throw new IllegalArgumentException("lower bounds must be less than upper bounds");
+        }
+        this.lowerXBound = lowerXBound;
+        this.upperXBound = upperXBound;
+        this.lowerZBound = lowerZBound;
+        this.upperZBound = upperZBound;
+    }
+
+    @Override
+    protected void prepare(int width, int height) {
+        double xDelta = (upperXBound - lowerXBound) / width;
+        columnX = new double[width];
+        for (int x = 0; x < width; x++) {
+            columnX[x] = lowerXBound + x * xDelta;
+        }
+        zDelta = (upperZBound - lowerZBound) / height;
+    }
+
+    @Override
+    protected void getRowCoordinates(int row, double[] x, double[] y, double[] z) {
+        System.arraycopy(columnX, 0, x, 0, columnX.length);
+        Arrays.fill(y, 0, columnX.length, 0.0);
+        Arrays.fill(z, 0, columnX.length, lowerZBound + row * zDelta);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Noise, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Flow Powered <https://github.com/flow>
+ * Copyright (c) SpongePowered <https://github.com/SpongePowered>
+ * Copyright (c) contributors
+ *
+ * Original libnoise C++ library by Jason Bevins <http://libnoise.sourceforge.net>
+ * jlibnoise Java port by Garrett Fleenor <https://github.com/RoyAwesome/jlibnoise>
+ * Noise is re-licensed with permission from jlibnoise author.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spongepowered.noise.util;
+
+/**
+ * Builds a spherical noise map.
+ * <p/>
+ * This class builds a noise map by filling it with the output values of a noise module, sampled over a latitude and longitude range on the surface of a unit sphere (see
+ * {@link spongepowered.noise.model.Sphere}).  The columns of the noise map run from west to east and the rows from south to north.  A map of the whole planet has the bounds -90, 90, -180, 180
+ * and a width twice its height.
+ * <p/>
+ * The sine and cosine of every longitude are computed once per noise map and those of every latitude once per row, so each value costs two multiplications on top of the noise module.  The
+ * input values are exactly those {@link spongepowered.noise.Utils#latLonToXYZ(double, double)} returns.
+ */
+public class NoiseMapBuilderSphere extends NoiseMapBuilder {
+    // Southern boundary of the spherical noise map, in degrees.
+    private double southLatBound = -90.0;
+    // Northern boundary of the spherical noise map, in degrees.
+    private double northLatBound = 90.0;
+    // Western boundary of the spherical noise map, in degrees.
+    private double westLonBound = -180.0;
+    // Eastern boundary of the spherical noise map, in degrees.
+    private double eastLonBound = 180.0;
+    // Cosine of the longitude of every column.
+    private double[] lonCos;
+    // Sine of the longitude of every column.
+    private double[] lonSin;
+    // Distance between the latitudes of two rows, in degrees.
+    private double latDelta;
+
+    public double getSouthLatBound() {
+        return southLatBound;
+    }
+
+    public double getNorthLatBound() {
+        return northLatBound;
+    }
+
+    public double getWestLonBound() {
+        return westLonBound;
+    }
+
+    public double getEastLonBound() {
+        return eastLonBound;
+    }
+
+    /**
+     * Sets the coordinate boundaries of the spherical noise map.
+     *
+     * @param southLatBound The southern boundary of the noise map, in degrees.
+     * @param northLatBound The northern boundary of the noise map, in degrees.
+     * @param westLonBound The western boundary of the noise map, in degrees.
+     * @param eastLonBound The eastern boundary of the noise map, in degrees.
+     * @throws IllegalArgumentException if the southern boundary is not less than the northern boundary or the western boundary is not less than the eastern boundary.
+     */
+    public void setBounds(double southLatBound, double northLatBound, double westLonBound, double eastLonBound) {
+        if (southLatBound >= northLatBound || westLonBound >= eastLonBound) {
+            throw new IllegalArgumentException("south must be less than north and west less than east");
+        }
+        this.southLatBound = southLatBound;
+        this.northLatBound = northLatBound;
+        this.westLonBound = westLonBound;
+        this.eastLonBound = eastLonBound;
+    }
+
+    @Override
+    protected void prepare(int width, int height) {
+        double lonDelta = (eastLonBound - westLonBound) / width;
+        lonCos = new double[width];
+        lonSin = new double[width];
+        for (int x = 0; x < width; x++) {
+            double lon = Math.toRadians(westLonBound + x * lonDelta);
+            lonCos[x] = Math.cos(lon);
+            lonSin[x] = Math.sin(lon);
+        }
+        latDelta = (northLatBound - southLatBound) / height;
+    }
+
+    @Override
+    protected void getRowCoordinates(int row, double[] x, double[] y, double[] z) {
+        double lat = Math.toRadians(southLatBound + row * latDelta);
+        double r = Math.cos(lat);
+        double height = Math.sin(lat);
+        for (int i = 0; i < lonCos.length; i++) {
+            x[i] = r * lonCos[i];
+            y[i] = height;
+            z[i] = r * lonSin[i];
+        }
+    }
+}